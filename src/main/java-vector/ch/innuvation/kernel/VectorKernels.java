@@ -0,0 +1,207 @@
+package ch.innuvation.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the incubating JDK Vector API
+ *
+ * Uses the widest vector shape the CPU supports (8 doubles on AVX-512) with
+ * fused multiply-add, and falls back to scalar code for the tail of each loop.
+ * Only compiled with the Maven {@code vector} profile; see {@link Kernels}.
+ */
+public final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int FLOAT_LANES = FLOAT_SPECIES.length();
+    private static final VectorSpecies<Float> HALF_FLOAT_SPECIES =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.vectorBitSize() + "-bit)";
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOff + k);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOff + k);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < n; k++) {
+            sum += a[aOff + k] * b[bOff + k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        if (bound > 0) {
+            DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+            for (; k < bound; k += LANES) {
+                DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOff + k);
+                DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOff + k);
+                vx.fma(va, vy).intoArray(y, yOff + k);
+            }
+        }
+        for (; k < n; k++) {
+            y[yOff + k] += alpha * x[xOff + k];
+        }
+    }
+
+    /**
+     * Twice the lanes of the double version for the same vector width
+     */
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int n) {
+        FloatVector acc = FloatVector.zero(FLOAT_SPECIES);
+        int bound = FLOAT_SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += FLOAT_LANES) {
+            FloatVector va = FloatVector.fromArray(FLOAT_SPECIES, a, aOff + k);
+            FloatVector vb = FloatVector.fromArray(FLOAT_SPECIES, b, bOff + k);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < n; k++) {
+            sum += a[aOff + k] * b[bOff + k];
+        }
+        return sum;
+    }
+
+    /**
+     * Loads half-width float vectors and widens them to the double shape
+     */
+    @Override
+    public void axpy(double alpha, float[] x, int xOff, double[] y, int yOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        if (bound > 0) {
+            DoubleVector va = DoubleVector.broadcast(SPECIES, alpha);
+            for (; k < bound; k += LANES) {
+                DoubleVector vx = (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, x, xOff + k)
+                        .convertShape(VectorOperators.F2D, SPECIES, 0);
+                DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOff + k);
+                vx.fma(va, vy).intoArray(y, yOff + k);
+            }
+        }
+        for (; k < n; k++) {
+            y[yOff + k] += alpha * x[xOff + k];
+        }
+    }
+
+    /**
+     * Four rows of A share each vector load of Bt, keeping four vector accumulators
+     */
+    @Override
+    public void gemmNt(double[] a, int aOff, int aStride,
+                       double[] bt, int btOff, int btStride,
+                       double[] c, int cOff, int cStride,
+                       int rows, int cols, int n) {
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i + 4 <= rows; i += 4) {
+            int a0 = aOff + i * aStride;
+            int a1 = a0 + aStride;
+            int a2 = a1 + aStride;
+            int a3 = a2 + aStride;
+            int c0 = cOff + i * cStride;
+            for (int j = 0; j < cols; j++) {
+                int b = btOff + j * btStride;
+                DoubleVector v0 = DoubleVector.zero(SPECIES);
+                DoubleVector v1 = DoubleVector.zero(SPECIES);
+                DoubleVector v2 = DoubleVector.zero(SPECIES);
+                DoubleVector v3 = DoubleVector.zero(SPECIES);
+                int k = 0;
+                for (; k < bound; k += LANES) {
+                    DoubleVector vb = DoubleVector.fromArray(SPECIES, bt, b + k);
+                    v0 = DoubleVector.fromArray(SPECIES, a, a0 + k).fma(vb, v0);
+                    v1 = DoubleVector.fromArray(SPECIES, a, a1 + k).fma(vb, v1);
+                    v2 = DoubleVector.fromArray(SPECIES, a, a2 + k).fma(vb, v2);
+                    v3 = DoubleVector.fromArray(SPECIES, a, a3 + k).fma(vb, v3);
+                }
+                double s0 = v0.reduceLanes(VectorOperators.ADD);
+                double s1 = v1.reduceLanes(VectorOperators.ADD);
+                double s2 = v2.reduceLanes(VectorOperators.ADD);
+                double s3 = v3.reduceLanes(VectorOperators.ADD);
+                for (; k < n; k++) {
+                    double bk = bt[b + k];
+                    s0 += a[a0 + k] * bk;
+                    s1 += a[a1 + k] * bk;
+                    s2 += a[a2 + k] * bk;
+                    s3 += a[a3 + k] * bk;
+                }
+                c[c0 + j] += s0;
+                c[c0 + cStride + j] += s1;
+                c[c0 + 2 * cStride + j] += s2;
+                c[c0 + 3 * cStride + j] += s3;
+            }
+        }
+        for (; i < rows; i++) {
+            int ai = aOff + i * aStride;
+            int ci = cOff + i * cStride;
+            for (int j = 0; j < cols; j++) {
+                c[ci + j] += dot(a, ai, bt, btOff + j * btStride, n);
+            }
+        }
+    }
+
+    @Override
+    public void softmax(double[] v, int off, int n) {
+        int bound = SPECIES.loopBound(n);
+
+        // Find max for numerical stability
+        double max = Double.NEGATIVE_INFINITY;
+        int k = 0;
+        if (bound > 0) {
+            DoubleVector vmax = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+            for (; k < bound; k += LANES) {
+                vmax = vmax.max(DoubleVector.fromArray(SPECIES, v, off + k));
+            }
+            max = vmax.reduceLanes(VectorOperators.MAX);
+        }
+        for (; k < n; k++) {
+            max = Math.max(max, v[off + k]);
+        }
+
+        // Compute exp(logit - max) and sum
+        double sum = 0.0;
+        k = 0;
+        if (bound > 0) {
+            DoubleVector vsum = DoubleVector.zero(SPECIES);
+            for (; k < bound; k += LANES) {
+                DoubleVector e = DoubleVector.fromArray(SPECIES, v, off + k)
+                        .sub(max)
+                        .lanewise(VectorOperators.EXP);
+                e.intoArray(v, off + k);
+                vsum = vsum.add(e);
+            }
+            sum = vsum.reduceLanes(VectorOperators.ADD);
+        }
+        for (; k < n; k++) {
+            v[off + k] = Math.exp(v[off + k] - max);
+            sum += v[off + k];
+        }
+
+        // Normalize
+        double inv = 1.0 / sum;
+        k = 0;
+        for (; k < bound; k += LANES) {
+            DoubleVector.fromArray(SPECIES, v, off + k).mul(inv).intoArray(v, off + k);
+        }
+        for (; k < n; k++) {
+            v[off + k] *= inv;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Columnar binary dataset file, opened by memory mapping without parsing
+ *
+ * File layout (little-endian, written by {@link ColumnarDatasetWriter}):
+ * ```
+ * int    magic        'LRCF'
+ * int    version      1
+ * long   numRows
+ * int    numFeatures
+ * int    numOutputs
+ * long   reserved
+ * per column (features first, then outputs):
+ *     int  type       0 = float64, 1 = float32
+ *     int  reserved
+ *     long offset     byte offset of the column block, a multiple of 64
+ * column blocks: numRows values each, 64-byte aligned
+ * ```
+ *
+ * Opening a file only reads the header and maps each column, so the cost is
+ * independent of the file size. {@link #column(int)} and {@link #floatColumn(int)}
+ * expose the mapped bytes directly; {@link #read} gathers rows for the trainers.
+ * Each column is mapped on its own and must therefore fit in 2 GB
+ * (268M float64 or 536M float32 rows).
+ */
+public final class ColumnarDataset implements RowSource, AutoCloseable {
+    static final int MAGIC = 0x4643524C;  // "LRCF" read as little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int COLUMN_ENTRY_BYTES = 16;
+    static final int ALIGNMENT = 64;
+    static final int TYPE_FLOAT64 = 0;
+    static final int TYPE_FLOAT32 = 1;
+
+    private final FileChannel channel;
+    private final long numRows;
+    private final int numFeatures;
+    private final int numOutputs;
+    private final boolean[] float32;
+    private final DoubleBuffer[] doubleColumns;
+    private final FloatBuffer[] floatColumns;
+
+    private ColumnarDataset(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a columnar dataset file (bad magic)");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar dataset version " + version);
+        }
+        numRows = header.getLong();
+        numFeatures = header.getInt();
+        numOutputs = header.getInt();
+        if (numRows < 0 || numFeatures < 0 || numOutputs < 0
+                || (long) numFeatures + numOutputs > Integer.MAX_VALUE / COLUMN_ENTRY_BYTES) {
+            throw new IOException("Malformed columnar dataset header: " + numRows + " rows, "
+                    + numFeatures + " features, " + numOutputs + " outputs");
+        }
+
+        int numColumns = numFeatures + numOutputs;
+        ByteBuffer table = readFully(channel, HEADER_BYTES, numColumns * COLUMN_ENTRY_BYTES);
+        float32 = new boolean[numColumns];
+        doubleColumns = new DoubleBuffer[numColumns];
+        floatColumns = new FloatBuffer[numColumns];
+        for (int c = 0; c < numColumns; c++) {
+            int type = table.getInt();
+            table.getInt();
+            long offset = table.getLong();
+            if (type != TYPE_FLOAT64 && type != TYPE_FLOAT32) {
+                throw new IOException("Unknown column type " + type);
+            }
+            float32[c] = type == TYPE_FLOAT32;
+            if (numRows > Integer.MAX_VALUE / (float32[c] ? Float.BYTES : Double.BYTES)) {
+                throw new IOException("Column " + c + " has too many rows to map: " + numRows);
+            }
+            long bytes = numRows * (float32[c] ? Float.BYTES : Double.BYTES);
+            if (offset < 0 || offset + bytes > channel.size()) {
+                throw new IOException("Truncated column " + c);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (float32[c]) {
+                floatColumns[c] = mapped.asFloatBuffer();
+            } else {
+                doubleColumns[c] = mapped.asDoubleBuffer();
+            }
+        }
+    }
+
+    /**
+     * Map an existing columnar dataset file
+     */
+    public static ColumnarDataset open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ColumnarDataset(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated columnar dataset header");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public long numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numOutputs;
+    }
+
+    /**
+     * Whether a column is stored as float32
+     * @param c Column index (features first, then outputs)
+     */
+    public boolean isFloat32(int c) {
+        return float32[c];
+    }
+
+    /**
+     * Zero-copy view of a float64 column
+     * @param c Column index (features first, then outputs)
+     */
+    public DoubleBuffer column(int c) {
+        if (float32[c]) {
+            throw new IllegalArgumentException("Column " + c + " is float32; use floatColumn");
+        }
+        return doubleColumns[c].asReadOnlyBuffer();
+    }
+
+    /**
+     * Zero-copy view of a float32 column
+     * @param c Column index (features first, then outputs)
+     */
+    public FloatBuffer floatColumn(int c) {
+        if (!float32[c]) {
+            throw new IllegalArgumentException("Column " + c + " is float64; use column");
+        }
+        return floatColumns[c].asReadOnlyBuffer();
+    }
+
+    /**
+     * Gather rows from the columns into packed row-major buffers
+     * (float32 columns are widened to double)
+     */
+    @Override
+    public int read(long firstRow, int maxRows, double[] x, double[] y) {
+        int count = (int) Math.max(0, Math.min(maxRows, numRows - firstRow));
+        int first = (int) firstRow;
+        for (int c = 0; c < numFeatures + numOutputs; c++) {
+            double[] target = c < numFeatures ? x : y;
+            int width = c < numFeatures ? numFeatures : numOutputs;
+            int col = c < numFeatures ? c : c - numFeatures;
+            if (float32[c]) {
+                FloatBuffer column = floatColumns[c];
+                for (int r = 0; r < count; r++) {
+                    target[r * width + col] = column.get(first + r);
+                }
+            } else {
+                DoubleBuffer column = doubleColumns[c];
+                for (int r = 0; r < count; r++) {
+                    target[r * width + col] = column.get(first + r);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
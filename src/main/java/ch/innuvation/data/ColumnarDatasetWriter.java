@@ -0,0 +1,220 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming writer for the {@link ColumnarDataset} file format
+ *
+ * The number of rows does not have to be known up front. Rows are buffered
+ * column by column in fixed-size chunks; full chunks are appended to a spill
+ * file next to the target, and {@link #close()} lays the chunks of each column
+ * out contiguously in the final file with channel-to-channel transfers.
+ * Memory use is bounded by one chunk per column (about 8 MB in total).
+ */
+public final class ColumnarDatasetWriter implements AutoCloseable {
+    private final Path path;
+    private final Path spillPath;
+    private final FileChannel spill;
+    private final int numFeatures;
+    private final int numOutputs;
+    private final boolean[] float32;
+    private final int chunkRows;
+    private final ByteBuffer[] chunks;
+    private long[] chunkStarts = new long[16];  // spill file position of each chunk
+    private int numSpilledChunks;
+    private int rowsInChunk;
+    private long numRows;
+    private boolean closed;
+
+    /**
+     * Create a writer storing every column as float64
+     */
+    public ColumnarDatasetWriter(Path path, int numFeatures, int numOutputs) throws IOException {
+        this(path, numFeatures, numOutputs, new boolean[numFeatures + numOutputs]);
+    }
+
+    /**
+     * Create a writer with a storage type per column
+     * @param float32 Per column (features first, then outputs): true to store as float32
+     */
+    public ColumnarDatasetWriter(Path path, int numFeatures, int numOutputs, boolean[] float32) throws IOException {
+        int numColumns = numFeatures + numOutputs;
+        if (float32.length != numColumns) {
+            throw new IllegalArgumentException("Need one column type per feature and output");
+        }
+        this.path = path;
+        this.numFeatures = numFeatures;
+        this.numOutputs = numOutputs;
+        this.float32 = float32.clone();
+        this.chunkRows = Math.max(1024, (1 << 20) / Math.max(1, numColumns));
+        this.chunks = new ByteBuffer[numColumns];
+        for (int c = 0; c < numColumns; c++) {
+            int bytes = chunkRows * (float32[c] ? Float.BYTES : Double.BYTES);
+            chunks[c] = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        this.spillPath = Files.createTempFile(parent, path.getFileName().toString(), ".spill");
+        this.spill = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Append one row
+     * @param x Features [numFeatures]
+     * @param y Targets [numOutputs]
+     */
+    public void writeRow(double[] x, double[] y) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        if (x.length != numFeatures || y.length != numOutputs) {
+            throw new IllegalArgumentException("Row has the wrong number of features or outputs");
+        }
+        for (int c = 0; c < numFeatures; c++) {
+            put(c, x[c]);
+        }
+        for (int c = 0; c < numOutputs; c++) {
+            put(numFeatures + c, y[c]);
+        }
+        numRows++;
+        if (++rowsInChunk == chunkRows) {
+            spillChunk();
+        }
+    }
+
+    /**
+     * Append rows from in-heap arrays
+     */
+    public void writeRows(double[][] X, double[][] Y) throws IOException {
+        if (X.length != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        for (int i = 0; i < X.length; i++) {
+            writeRow(X[i], Y[i]);
+        }
+    }
+
+    private void put(int c, double value) {
+        if (float32[c]) {
+            chunks[c].putFloat((float) value);
+        } else {
+            chunks[c].putDouble(value);
+        }
+    }
+
+    /**
+     * Append the buffered chunk of every column to the spill file
+     */
+    private void spillChunk() throws IOException {
+        if (rowsInChunk == 0) {
+            return;
+        }
+        if (numSpilledChunks == chunkStarts.length) {
+            chunkStarts = java.util.Arrays.copyOf(chunkStarts, numSpilledChunks * 2);
+        }
+        chunkStarts[numSpilledChunks++] = spill.size();
+        long position = spill.size();
+        for (ByteBuffer chunk : chunks) {
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                position += spill.write(chunk, position);
+            }
+            chunk.clear();
+        }
+        rowsInChunk = 0;
+    }
+
+    /**
+     * Write the header and the contiguous column blocks, then delete the spill file
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long lastChunkRows = rowsInChunk == 0 ? chunkRows : rowsInChunk;
+        spillChunk();
+
+        int numColumns = numFeatures + numOutputs;
+        long[] offsets = new long[numColumns];
+        long position = align(ColumnarDataset.HEADER_BYTES + (long) numColumns * ColumnarDataset.COLUMN_ENTRY_BYTES);
+        for (int c = 0; c < numColumns; c++) {
+            offsets[c] = position;
+            position = align(position + numRows * width(c));
+        }
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(ColumnarDataset.HEADER_BYTES
+                    + numColumns * ColumnarDataset.COLUMN_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(ColumnarDataset.MAGIC).putInt(ColumnarDataset.VERSION).putLong(numRows)
+                  .putInt(numFeatures).putInt(numOutputs).putLong(0L);
+            for (int c = 0; c < numColumns; c++) {
+                header.putInt(float32[c] ? ColumnarDataset.TYPE_FLOAT32 : ColumnarDataset.TYPE_FLOAT64)
+                      .putInt(0).putLong(offsets[c]);
+            }
+            header.flip();
+            long headerPosition = 0;
+            while (header.hasRemaining()) {
+                headerPosition += out.write(header, headerPosition);
+            }
+
+            // Column c of chunk k sits after columns 0 .. c-1 of that chunk in the spill file
+            for (int c = 0; c < numColumns; c++) {
+                long target = offsets[c];
+                for (int k = 0; k < numSpilledChunks; k++) {
+                    long rows = k == numSpilledChunks - 1 ? lastChunkRows : chunkRows;
+                    long source = chunkStarts[k];
+                    for (int p = 0; p < c; p++) {
+                        source += rows * width(p);
+                    }
+                    long bytes = rows * width(c);
+                    long done = 0;
+                    while (done < bytes) {
+                        done += spill.transferTo(source + done, bytes - done, out.position(target + done));
+                    }
+                    target += bytes;
+                }
+            }
+            // Pad the file so the last column block ends on an aligned boundary
+            if (out.size() < position) {
+                out.write(ByteBuffer.allocate(1), position - 1);
+            }
+        } finally {
+            spill.close();
+            Files.deleteIfExists(spillPath);
+        }
+    }
+
+    /**
+     * Discard the rows written so far without producing a dataset: the spill
+     * file and any existing file at the target path are deleted
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            spill.close();
+            Files.deleteIfExists(spillPath);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private int width(int c) {
+        return float32[c] ? Float.BYTES : Double.BYTES;
+    }
+
+    private static long align(long position) {
+        return (position + ColumnarDataset.ALIGNMENT - 1) / ColumnarDataset.ALIGNMENT * ColumnarDataset.ALIGNMENT;
+    }
+}
@@ -0,0 +1,180 @@
+package ch.innuvation.data;
+
+/**
+ * Sparse feature matrix in compressed sparse row (CSR) format
+ *
+ * The stored entries of row i are columnIndices[k] / values[k] for k in
+ * [rowStart(i), rowEnd(i)). Memory is O(nnz + numRows), and the sparse
+ * training and prediction paths of the models only visit stored entries, so
+ * their cost scales with nnz rather than numRows · numCols. Column indices
+ * within a row need not be sorted but should not repeat.
+ */
+public final class CsrMatrix {
+    private final int numRows;
+    private final int numCols;
+    private final int[] rowPointers;    // [numRows + 1]
+    private final int[] columnIndices;  // [nnz]
+    private final double[] values;      // [nnz]
+
+    /**
+     * Wrap existing CSR arrays (no copy)
+     * @param numRows Number of rows
+     * @param numCols Number of columns (features)
+     * @param rowPointers Start of every row in the entry arrays, plus the total nnz [numRows + 1]
+     * @param columnIndices Column of every stored entry [nnz]
+     * @param values Value of every stored entry [nnz]
+     */
+    public CsrMatrix(int numRows, int numCols, int[] rowPointers, int[] columnIndices, double[] values) {
+        if (numRows < 0 || numCols < 0 || rowPointers.length != numRows + 1 || rowPointers[0] != 0) {
+            throw new IllegalArgumentException("Invalid CSR shape");
+        }
+        int nnz = rowPointers[numRows];
+        if (columnIndices.length < nnz || values.length < nnz) {
+            throw new IllegalArgumentException("CSR entry arrays are shorter than the row pointers");
+        }
+        for (int i = 0; i < numRows; i++) {
+            if (rowPointers[i + 1] < rowPointers[i]) {
+                throw new IllegalArgumentException("CSR row pointers must be non-decreasing");
+            }
+        }
+        for (int k = 0; k < nnz; k++) {
+            if (columnIndices[k] < 0 || columnIndices[k] >= numCols) {
+                throw new IllegalArgumentException("Column index out of range: " + columnIndices[k]);
+            }
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Copy the non-zero entries of a dense jagged array
+     */
+    public static CsrMatrix fromDense(double[][] X) {
+        int numCols = X.length == 0 ? 0 : X[0].length;
+        Builder builder = new Builder(numCols);
+        int[] indices = new int[numCols];
+        double[] rowValues = new double[numCols];
+        for (double[] row : X) {
+            int count = 0;
+            for (int j = 0; j < numCols; j++) {
+                if (row[j] != 0.0) {
+                    indices[count] = j;
+                    rowValues[count] = row[j];
+                    count++;
+                }
+            }
+            builder.addRow(indices, rowValues, count);
+        }
+        return builder.build();
+    }
+
+    public int numRows() { return numRows; }
+    public int numCols() { return numCols; }
+
+    /**
+     * Number of stored entries
+     */
+    public int nnz() {
+        return rowPointers[numRows];
+    }
+
+    /**
+     * Index of the first stored entry of row i
+     */
+    public int rowStart(int i) {
+        return rowPointers[i];
+    }
+
+    /**
+     * Index one past the last stored entry of row i
+     */
+    public int rowEnd(int i) {
+        return rowPointers[i + 1];
+    }
+
+    /**
+     * Column of every stored entry (shared, not a copy)
+     */
+    public int[] columnIndices() { return columnIndices; }
+
+    /**
+     * Value of every stored entry (shared, not a copy)
+     */
+    public double[] values() { return values; }
+
+    /**
+     * Dense copy of row i
+     */
+    public double[] denseRow(int i) {
+        double[] row = new double[numCols];
+        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+            row[columnIndices[k]] = values[k];
+        }
+        return row;
+    }
+
+    /**
+     * Appends rows one at a time into growable entry arrays
+     */
+    public static final class Builder {
+        private final int numCols;
+        private int numRows;
+        private int nnz;
+        private int[] rowPointers = new int[1024];
+        private int[] columnIndices = new int[4096];
+        private double[] values = new double[4096];
+
+        /**
+         * @param numCols Number of columns (features) of every row
+         */
+        public Builder(int numCols) {
+            this.numCols = numCols;
+        }
+
+        /**
+         * Append one row from parallel index / value buffers (copied)
+         * @param indices Column indices of the row's entries
+         * @param rowValues Values of the row's entries
+         * @param count Number of entries to take from the buffers
+         * @return this builder
+         */
+        public Builder addRow(int[] indices, double[] rowValues, int count) {
+            if (numRows + 2 > rowPointers.length) {
+                rowPointers = java.util.Arrays.copyOf(rowPointers, rowPointers.length * 2);
+            }
+            if (nnz + count > columnIndices.length) {
+                int capacity = Math.max(columnIndices.length * 2, nnz + count);
+                columnIndices = java.util.Arrays.copyOf(columnIndices, capacity);
+                values = java.util.Arrays.copyOf(values, capacity);
+            }
+            for (int k = 0; k < count; k++) {
+                if (indices[k] < 0 || indices[k] >= numCols) {
+                    throw new IllegalArgumentException("Column index out of range: " + indices[k]);
+                }
+            }
+            System.arraycopy(indices, 0, columnIndices, nnz, count);
+            System.arraycopy(rowValues, 0, values, nnz, count);
+            nnz += count;
+            numRows++;
+            rowPointers[numRows] = nnz;
+            return this;
+        }
+
+        public int numRows() {
+            return numRows;
+        }
+
+        /**
+         * Matrix of all rows added so far, trimmed to size
+         */
+        public CsrMatrix build() {
+            return new CsrMatrix(numRows, numCols,
+                    java.util.Arrays.copyOf(rowPointers, numRows + 1),
+                    java.util.Arrays.copyOf(columnIndices, nnz),
+                    java.util.Arrays.copyOf(values, nnz));
+        }
+    }
+}
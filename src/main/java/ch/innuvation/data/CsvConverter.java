@@ -0,0 +1,76 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts a numeric CSV file into a {@link ColumnarDataset} file
+ *
+ * Each line holds the features followed by the outputs, separated by commas.
+ * The conversion streams the input through the same byte-level parser as
+ * {@link CsvLoader}, so files of any size can be converted once and then
+ * opened instantly on every later run.
+ */
+public final class CsvConverter {
+
+    private CsvConverter() {
+    }
+
+    /**
+     * Convert a CSV file, storing every column as float64
+     * @param csv Source CSV file
+     * @param target Columnar dataset file to create
+     * @param numOutputs Number of trailing columns that are targets
+     * @param hasHeader Whether the first line is a header to skip
+     * @return Number of rows written
+     */
+    public static long convert(Path csv, Path target, int numOutputs, boolean hasHeader) throws IOException {
+        return convert(csv, target, numOutputs, hasHeader, false);
+    }
+
+    /**
+     * Convert a CSV file
+     * @param csv Source CSV file
+     * @param target Columnar dataset file to create
+     * @param numOutputs Number of trailing columns that are targets
+     * @param hasHeader Whether the first line is a header to skip
+     * @param float32Features Store the feature columns as float32 (outputs stay float64)
+     * @return Number of rows written
+     */
+    public static long convert(Path csv, Path target, int numOutputs, boolean hasHeader,
+                               boolean float32Features) throws IOException {
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            int numColumns = CsvParser.countColumns(channel, hasHeader, (byte) ',');
+            int numFeatures = numColumns - numOutputs;
+            if (numFeatures < 0) {
+                throw new IOException("CSV has fewer columns than outputs");
+            }
+            boolean[] float32 = new boolean[numColumns];
+            java.util.Arrays.fill(float32, 0, numFeatures, float32Features);
+
+            double[] x = new double[numFeatures];
+            double[] y = new double[numOutputs];
+            ColumnarDatasetWriter writer = new ColumnarDatasetWriter(target, numFeatures, numOutputs, float32);
+            long rows;
+            try {
+                rows = new CsvParser(numColumns, (byte) ',').parse(channel, 0, channel.size(), hasHeader, values -> {
+                    System.arraycopy(values, 0, x, 0, numFeatures);
+                    System.arraycopy(values, numFeatures, y, 0, numOutputs);
+                    writer.writeRow(x, y);
+                });
+            } catch (IOException | RuntimeException e) {
+                // Leave no well-formed but truncated dataset behind
+                try {
+                    writer.abort();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+            writer.close();
+            return rows;
+        }
+    }
+}
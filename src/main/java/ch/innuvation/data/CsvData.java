@@ -0,0 +1,113 @@
+package ch.innuvation.data;
+
+/**
+ * Numeric CSV contents loaded by {@link CsvLoader}
+ *
+ * Features and targets are kept in two packed row-major buffers. They can be
+ * trained on directly as a {@link RowSource}, or copied into the jagged
+ * arrays taken by the trainers' {@code train(double[][], double[][])}.
+ */
+public final class CsvData implements RowSource {
+    private final double[] x;
+    private final double[] y;
+    private final int numRows;
+    private final int numFeatures;
+    private final int numOutputs;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    CsvData(double[] x, double[] y, int numRows, int numFeatures, int numOutputs, long bytes, long elapsedNanos) {
+        this.x = x;
+        this.y = y;
+        this.numRows = numRows;
+        this.numFeatures = numFeatures;
+        this.numOutputs = numOutputs;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    @Override
+    public long numRows() { return numRows; }
+
+    @Override
+    public int numFeatures() { return numFeatures; }
+
+    @Override
+    public int numOutputs() { return numOutputs; }
+
+    @Override
+    public int read(long firstRow, int maxRows, double[] x, double[] y) {
+        int rows = (int) Math.min(maxRows, numRows - firstRow);
+        if (rows <= 0) {
+            return 0;
+        }
+        int first = (int) firstRow;
+        System.arraycopy(this.x, first * numFeatures, x, 0, rows * numFeatures);
+        System.arraycopy(this.y, first * numOutputs, y, 0, rows * numOutputs);
+        return rows;
+    }
+
+    /**
+     * Features as [numRows][numFeatures] (a copy)
+     */
+    public double[][] features() {
+        return unpack(x, numFeatures);
+    }
+
+    /**
+     * Targets as [numRows][numOutputs] (a copy)
+     */
+    public double[][] targets() {
+        return unpack(y, numOutputs);
+    }
+
+    /**
+     * Packed row-major features [numRows * numFeatures] (shared, not a copy)
+     */
+    public double[] packedFeatures() {
+        return x;
+    }
+
+    /**
+     * Packed row-major targets [numRows * numOutputs] (shared, not a copy)
+     */
+    public double[] packedTargets() {
+        return y;
+    }
+
+    /**
+     * Size of the parsed file in bytes
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Wall-clock time spent loading, in milliseconds
+     */
+    public double elapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    /**
+     * Parsing throughput in rows per second
+     */
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : numRows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Parsing throughput in megabytes (2^20 bytes) per second
+     */
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : bytes * 1e9 / elapsedNanos / (1 << 20);
+    }
+
+    private double[][] unpack(double[] packed, int cols) {
+        double[][] result = new double[numRows][cols];
+        for (int i = 0; i < numRows; i++) {
+            System.arraycopy(packed, i * cols, result[i], 0, cols);
+        }
+        return result;
+    }
+}
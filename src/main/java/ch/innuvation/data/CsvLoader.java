@@ -0,0 +1,208 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a numeric CSV file into primitive buffers
+ *
+ * Each line holds the features followed by the outputs. The file is read
+ * through a reusable byte buffer and numbers are parsed straight from the
+ * bytes, so the per-cell String and array objects of
+ * {@code String.split} + {@code Double.parseDouble} are never created; rows
+ * are appended to growable row-major double[] buffers.
+ *
+ * With more than one thread the file is split into byte ranges of roughly
+ * equal size. Every range is parsed independently (a line belongs to the
+ * range its first byte lies in) and the results are concatenated in file
+ * order, so the loaded data does not depend on the thread count.
+ */
+public final class CsvLoader {
+    private static final int INITIAL_ROWS = 1024;
+
+    private final int numOutputs;
+    private final boolean hasHeader;
+    private final byte delimiter;
+
+    /**
+     * Comma-separated loader
+     * @param numOutputs Number of trailing columns that are targets
+     * @param hasHeader Whether the first line is a header to skip
+     */
+    public CsvLoader(int numOutputs, boolean hasHeader) {
+        this(numOutputs, hasHeader, ',');
+    }
+
+    /**
+     * @param numOutputs Number of trailing columns that are targets
+     * @param hasHeader Whether the first line is a header to skip
+     * @param delimiter Field separator (a single ASCII character)
+     */
+    public CsvLoader(int numOutputs, boolean hasHeader, char delimiter) {
+        if (numOutputs < 0) {
+            throw new IllegalArgumentException("numOutputs must not be negative");
+        }
+        if (delimiter > 127 || delimiter == '\n' || delimiter == '\r' || delimiter == '.'
+                || delimiter == '-' || delimiter == '+' || Character.isLetterOrDigit(delimiter)) {
+            throw new IllegalArgumentException("Invalid delimiter: '" + delimiter + "'");
+        }
+        this.numOutputs = numOutputs;
+        this.hasHeader = hasHeader;
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * Load a file on the calling thread
+     */
+    public CsvData load(Path csv) throws IOException {
+        return load(csv, 1);
+    }
+
+    /**
+     * Load a file, parsing byte ranges on several threads
+     * @param csv Source CSV file
+     * @param threads Number of parser threads (1 parses on the calling thread)
+     */
+    public CsvData load(Path csv, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            int numColumns = CsvParser.countColumns(channel, hasHeader, delimiter);
+            int numFeatures = numColumns - numOutputs;
+            if (numFeatures < 0) {
+                throw new IOException("CSV has fewer columns than outputs");
+            }
+
+            long size = channel.size();
+            int numRanges = (int) Math.max(1, Math.min(threads, size / (1 << 20)));
+            Buffers[] parts = new Buffers[numRanges];
+            if (numRanges == 1) {
+                parts[0] = parseRange(channel, numColumns, numFeatures, 0, size);
+            } else {
+                ExecutorService pool = Executors.newFixedThreadPool(numRanges);
+                try {
+                    List<Future<Buffers>> futures = new ArrayList<>();
+                    for (int r = 0; r < numRanges; r++) {
+                        long from = size * r / numRanges;
+                        long to = size * (r + 1) / numRanges;
+                        futures.add(pool.submit(() -> parseRange(channel, numColumns, numFeatures, from, to)));
+                    }
+                    for (int r = 0; r < numRanges; r++) {
+                        parts[r] = futures.get(r).get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while loading " + csv, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            Buffers all = concat(parts, numFeatures);
+            all.trim();
+            return new CsvData(all.x, all.y, all.rows, numFeatures, numOutputs, size, System.nanoTime() - start);
+        }
+    }
+
+    private Buffers parseRange(FileChannel channel, int numColumns, int numFeatures, long from, long to) throws IOException {
+        // A range that does not start right after a newline begins mid-line:
+        // that line belongs to the previous range
+        boolean skipFirstLine = from == 0 ? hasHeader : !startsLine(channel, from);
+        Buffers buffers = new Buffers(numFeatures, numOutputs);
+        new CsvParser(numColumns, delimiter).parse(channel, from, to, skipFirstLine, buffers);
+        return buffers;
+    }
+
+    private static boolean startsLine(FileChannel channel, long position) throws IOException {
+        java.nio.ByteBuffer previous = java.nio.ByteBuffer.allocate(1);
+        channel.read(previous, position - 1);
+        return previous.get(0) == '\n';
+    }
+
+    private Buffers concat(Buffers[] parts, int numFeatures) {
+        if (parts.length == 1) {
+            return parts[0];
+        }
+        long total = 0;
+        for (Buffers part : parts) {
+            total += part.rows;
+        }
+        Buffers all = new Buffers(numFeatures, numOutputs);
+        all.ensureCapacity(total);
+        for (Buffers part : parts) {
+            System.arraycopy(part.x, 0, all.x, all.rows * numFeatures, part.rows * numFeatures);
+            System.arraycopy(part.y, 0, all.y, all.rows * numOutputs, part.rows * numOutputs);
+            all.rows += part.rows;
+        }
+        return all;
+    }
+
+    /**
+     * Growable packed feature and target buffers for one byte range
+     */
+    private static final class Buffers implements CsvParser.RowHandler {
+        private final int numFeatures;
+        private final int numOutputs;
+        private double[] x;
+        private double[] y;
+        private int rows;
+        private int capacity;
+
+        Buffers(int numFeatures, int numOutputs) {
+            this.numFeatures = numFeatures;
+            this.numOutputs = numOutputs;
+            this.capacity = INITIAL_ROWS;
+            this.x = new double[capacity * numFeatures];
+            this.y = new double[capacity * numOutputs];
+        }
+
+        @Override
+        public void row(double[] values) throws IOException {
+            if (rows == capacity) {
+                ensureCapacity(capacity * 2L);
+            }
+            System.arraycopy(values, 0, x, rows * numFeatures, numFeatures);
+            System.arraycopy(values, numFeatures, y, rows * numOutputs, numOutputs);
+            rows++;
+        }
+
+        void ensureCapacity(long minRows) {
+            if (minRows <= capacity) {
+                return;
+            }
+            long limit = Integer.MAX_VALUE / Math.max(1, numFeatures + numOutputs);
+            if (minRows > limit) {
+                throw new IllegalStateException("CSV too large to load into memory; convert it with CsvConverter instead");
+            }
+            capacity = (int) Math.min(Math.max(minRows, capacity * 2L), limit);
+            x = java.util.Arrays.copyOf(x, capacity * numFeatures);
+            y = java.util.Arrays.copyOf(y, capacity * numOutputs);
+        }
+
+        /**
+         * Shrink the buffers to the rows actually parsed
+         */
+        void trim() {
+            if (capacity != rows) {
+                capacity = rows;
+                x = java.util.Arrays.copyOf(x, rows * numFeatures);
+                y = java.util.Arrays.copyOf(y, rows * numOutputs);
+            }
+        }
+    }
+}
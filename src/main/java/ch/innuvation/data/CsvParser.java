@@ -0,0 +1,284 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level parser for numeric CSV files
+ *
+ * Reads the file through one reusable buffer and turns each field into a
+ * double without creating a String: digits are accumulated into a long
+ * mantissa and scaled by an exact power of ten, which is correctly rounded
+ * whenever the mantissa fits in 53 bits and the decimal exponent is within
+ * ±22. Anything else (long mantissas, NaN, Infinity, stray characters) falls
+ * back to {@link Double#parseDouble}, the only place that allocates.
+ *
+ * A parser handles the lines that start in a byte range of the file, so
+ * several parsers can work on disjoint ranges of the same file in parallel.
+ */
+final class CsvParser {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    /**
+     * Receives every parsed row; the values array is reused for the next row
+     */
+    interface RowHandler {
+        void row(double[] values) throws IOException;
+    }
+
+    private final int numColumns;
+    private final byte delimiter;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final double[] values;
+
+    // Current field
+    private byte[] raw = new byte[64];
+    private int rawLength;
+    private long mantissa;
+    private int decimalExponent;
+    private int exponent;
+    private boolean negative;
+    private boolean exponentNegative;
+    private boolean sawDigit;
+    private boolean sawDot;
+    private boolean inExponent;
+    private boolean sawExponentDigit;
+    private boolean trailingSpace;
+    private boolean slow;
+
+    private int column;
+    private long fieldStart;  // file offset of the current line, for error messages
+
+    CsvParser(int numColumns, byte delimiter) {
+        this.numColumns = numColumns;
+        this.delimiter = delimiter;
+        this.values = new double[numColumns];
+        resetField();
+    }
+
+    /**
+     * Parse every line whose first byte lies in [start, end)
+     * @param skipFirstLine Skip the first line of the range (a header, or the
+     *                      tail of a line that began in the previous range)
+     * @return Number of rows handed to the handler
+     */
+    long parse(FileChannel channel, long start, long end, boolean skipFirstLine, RowHandler handler) throws IOException {
+        byte[] bytes = buffer.array();
+        long position = start;  // file offset of bytes[0]
+        int limit = 0;
+        int i = 0;
+        boolean lineStart = true;
+        boolean skipping = skipFirstLine;
+        long rows = 0;
+        column = 0;
+        resetField();
+
+        while (true) {
+            if (i == limit) {
+                position += limit;
+                buffer.clear();
+                int n = channel.read(buffer, position);
+                if (n <= 0) {
+                    if (!lineStart && !skipping && finishLine(handler)) {
+                        rows++;
+                    }
+                    return rows;
+                }
+                limit = n;
+                i = 0;
+            }
+
+            if (lineStart) {
+                if (position + i >= end) {
+                    return rows;
+                }
+                lineStart = false;
+                fieldStart = position + i;
+            }
+
+            byte b = bytes[i++];
+            if (skipping) {
+                if (b == '\n') {
+                    skipping = false;
+                    lineStart = true;
+                }
+            } else if (b == '\n') {
+                if (finishLine(handler)) {
+                    rows++;
+                }
+                lineStart = true;
+            } else if (b == delimiter) {
+                finishField();
+            } else if (b != '\r') {
+                feed(b);
+            }
+        }
+    }
+
+    /**
+     * Number of fields on the first data line of the file
+     */
+    static int countColumns(FileChannel channel, boolean hasHeader, byte delimiter) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        long position = 0;
+        boolean skipping = hasHeader;
+        int columns = 1;
+        boolean any = false;
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                if (!any) {
+                    throw new IOException("CSV file has no data rows");
+                }
+                return columns;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < n; i++) {
+                byte b = bytes[i];
+                if (skipping) {
+                    skipping = b != '\n';
+                } else if (b == '\n') {
+                    if (any) {
+                        return columns;
+                    }
+                } else if (b == delimiter) {
+                    columns++;
+                    any = true;
+                } else if (b != '\r') {
+                    any = true;
+                }
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Blanks are trimmed at the start and end of a field only; a blank inside
+     * a field is kept in the raw text, so the field fails to parse
+     */
+    private void feed(byte b) throws IOException {
+        if (b == ' ' || b == '\t') {
+            trailingSpace = rawLength > 0;
+            return;
+        }
+        if (trailingSpace) {
+            append((byte) ' ');
+            trailingSpace = false;
+            slow = true;
+        }
+        append(b);
+
+        if (b >= '0' && b <= '9') {
+            int d = b - '0';
+            if (inExponent) {
+                sawExponentDigit = true;
+                exponent = Math.min(exponent * 10 + d, 100_000);
+            } else {
+                sawDigit = true;
+                if (mantissa == 0 && d == 0) {
+                    if (sawDot) {
+                        decimalExponent--;
+                    }
+                } else if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + d;
+                    if (sawDot) {
+                        decimalExponent--;
+                    }
+                } else {
+                    slow = true;  // more significant digits than fit exactly
+                }
+            }
+        } else if (b == '.' && !sawDot && !inExponent) {
+            sawDot = true;
+        } else if ((b == 'e' || b == 'E') && sawDigit && !inExponent) {
+            inExponent = true;
+        } else if ((b == '-' || b == '+') && rawLength == 1) {
+            negative = b == '-';
+        } else if ((b == '-' || b == '+') && inExponent && (raw[rawLength - 2] == 'e' || raw[rawLength - 2] == 'E')) {
+            exponentNegative = b == '-';
+        } else {
+            slow = true;
+        }
+    }
+
+    private void append(byte b) {
+        if (rawLength == raw.length) {
+            raw = java.util.Arrays.copyOf(raw, raw.length * 2);
+        }
+        raw[rawLength++] = b;
+    }
+
+    private void finishField() throws IOException {
+        if (column >= numColumns) {
+            throw new IOException("Too many columns in line at byte " + fieldStart + ", expected " + numColumns);
+        }
+        values[column++] = fieldValue();
+        resetField();
+    }
+
+    /**
+     * @return true if a row was produced (false for a blank line)
+     */
+    private boolean finishLine(RowHandler handler) throws IOException {
+        if (column == 0 && rawLength == 0) {
+            resetField();
+            return false;
+        }
+        finishField();
+        if (column != numColumns) {
+            throw new IOException("Line at byte " + fieldStart + " has " + column + " columns, expected " + numColumns);
+        }
+        handler.row(values);
+        column = 0;
+        return true;
+    }
+
+    private double fieldValue() throws IOException {
+        if (rawLength == 0) {
+            throw new IOException("Empty value in line at byte " + fieldStart);
+        }
+        if (!slow && sawDigit && (!inExponent || sawExponentDigit)) {
+            int e = decimalExponent + (exponentNegative ? -exponent : exponent);
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            }
+            if (e >= -22 && e <= 22) {
+                double v = e >= 0 ? mantissa * POWERS_OF_TEN[e] : mantissa / POWERS_OF_TEN[-e];
+                return negative ? -v : v;
+            }
+        }
+        String text = new String(raw, 0, rawLength, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number '" + text + "' in line at byte " + fieldStart, e);
+        }
+    }
+
+    private void resetField() {
+        rawLength = 0;
+        mantissa = 0;
+        decimalExponent = 0;
+        exponent = 0;
+        negative = false;
+        exponentNegative = false;
+        sawDigit = false;
+        sawDot = false;
+        inExponent = false;
+        sawExponentDigit = false;
+        trailingSpace = false;
+        slow = false;
+    }
+}
@@ -0,0 +1,275 @@
+package ch.innuvation.data;
+
+/**
+ * Hashing vectorizer for categorical and high-cardinality inputs
+ *
+ * Tokens are hashed with 32-bit MurmurHash3 straight into one of numBuckets
+ * feature columns, so no dictionary is built and the model size is bounded by
+ * the bucket count regardless of the vocabulary. With signed hashing the
+ * sign of the hash also flips the value, which makes colliding features
+ * cancel out on average instead of piling up in one direction.
+ *
+ * A hasher assembles one sparse row at a time in reusable buffers and
+ * allocates nothing after warm-up:
+ * <pre>
+ * hasher.add("country", "CH").add("device", "ios").add("price", 12.5);
+ * model.predictInto(hasher.indices(), hasher.values(), hasher.size(), out);
+ * hasher.appendTo(builder);  // or as a training row; starts the next row
+ * </pre>
+ * Instances are not thread-safe; use one per thread.
+ */
+public final class FeatureHasher {
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private final int numBuckets;
+    private final int seed;
+    private final boolean signed;
+
+    private int[] indices = new int[64];
+    private double[] values = new double[64];
+    private int size;
+    private boolean merged = true;
+    private byte[] utf8 = new byte[256];
+
+    /**
+     * Signed hashing with seed 0
+     * @param numBuckets Number of feature columns
+     */
+    public FeatureHasher(int numBuckets) {
+        this(numBuckets, 0, true);
+    }
+
+    /**
+     * @param numBuckets Number of feature columns
+     * @param seed MurmurHash3 seed
+     * @param signed Whether the hash also decides the sign of each value
+     */
+    public FeatureHasher(int numBuckets, int seed, boolean signed) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive");
+        }
+        this.numBuckets = numBuckets;
+        this.seed = seed;
+        this.signed = signed;
+    }
+
+    /**
+     * Number of feature columns, i.e. the numFeatures of a model trained on the rows
+     */
+    public int numBuckets() {
+        return numBuckets;
+    }
+
+    /**
+     * Add a token with value 1 (e.g. a word or a "field=value" string)
+     */
+    public FeatureHasher add(CharSequence token) {
+        return add(token, 1.0);
+    }
+
+    /**
+     * Add a named numeric feature
+     */
+    public FeatureHasher add(CharSequence name, double value) {
+        return addHash(hash(name, seed), value);
+    }
+
+    /**
+     * Add a categorical feature with value 1; the field name seeds the hash of
+     * the category, so the same category in two fields lands in different buckets
+     */
+    public FeatureHasher add(CharSequence field, CharSequence category) {
+        return addHash(hash(category, hash(field, seed)), 1.0);
+    }
+
+    /**
+     * Add a feature identified by a numeric id (e.g. an item or user id)
+     */
+    public FeatureHasher add(long featureId, double value) {
+        return addHash(murmur3((int) featureId, (int) (featureId >>> 32), seed), value);
+    }
+
+    private FeatureHasher addHash(int hash, double value) {
+        if (size == indices.length) {
+            indices = java.util.Arrays.copyOf(indices, size * 2);
+            values = java.util.Arrays.copyOf(values, size * 2);
+        }
+        indices[size] = (hash & 0x7fffffff) % numBuckets;
+        values[size] = signed && hash < 0 ? -value : value;
+        size++;
+        merged = false;
+        return this;
+    }
+
+    /**
+     * Number of entries of the current row (after merging colliding tokens)
+     */
+    public int size() {
+        merge();
+        return size;
+    }
+
+    /**
+     * Column indices of the current row, valid for the first {@link #size()} entries
+     * (shared buffer, overwritten by the next row)
+     */
+    public int[] indices() {
+        merge();
+        return indices;
+    }
+
+    /**
+     * Values of the current row, valid for the first {@link #size()} entries
+     * (shared buffer, overwritten by the next row)
+     */
+    public double[] values() {
+        merge();
+        return values;
+    }
+
+    /**
+     * Append the current row to a CSR builder and start the next row
+     */
+    public void appendTo(CsrMatrix.Builder builder) {
+        merge();
+        builder.addRow(indices, values, size);
+        clear();
+    }
+
+    /**
+     * Discard the current row
+     */
+    public void clear() {
+        size = 0;
+        merged = true;
+    }
+
+    /**
+     * Sort the entries by column, sum the values of colliding tokens and drop
+     * entries that cancelled out, so every column appears at most once
+     */
+    private void merge() {
+        if (merged) {
+            return;
+        }
+        // Insertion sort: rows are short and often nearly sorted
+        for (int i = 1; i < size; i++) {
+            int index = indices[i];
+            double value = values[i];
+            int j = i - 1;
+            while (j >= 0 && indices[j] > index) {
+                indices[j + 1] = indices[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            indices[j + 1] = index;
+            values[j + 1] = value;
+        }
+        int out = 0;
+        for (int i = 0; i < size; ) {
+            int index = indices[i];
+            double sum = 0.0;
+            while (i < size && indices[i] == index) {
+                sum += values[i++];
+            }
+            if (sum != 0.0) {
+                indices[out] = index;
+                values[out] = sum;
+                out++;
+            }
+        }
+        size = out;
+        merged = true;
+    }
+
+    /**
+     * MurmurHash3 (x86, 32-bit) of the UTF-8 encoding of a token
+     */
+    private int hash(CharSequence token, int seed) {
+        int length = 0;
+        for (int i = 0; i < token.length(); i++) {
+            if (length + 4 > utf8.length) {
+                utf8 = java.util.Arrays.copyOf(utf8, utf8.length * 2);
+            }
+            char c = token.charAt(i);
+            if (c < 0x80) {
+                utf8[length++] = (byte) c;
+            } else if (c < 0x800) {
+                utf8[length++] = (byte) (0xC0 | (c >> 6));
+                utf8[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < token.length()
+                    && Character.isLowSurrogate(token.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, token.charAt(++i));
+                utf8[length++] = (byte) (0xF0 | (codePoint >> 18));
+                utf8[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                utf8[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                utf8[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                utf8[length++] = (byte) '?';  // unpaired surrogate, as String.getBytes(UTF_8)
+            } else {
+                utf8[length++] = (byte) (0xE0 | (c >> 12));
+                utf8[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                utf8[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return murmur3(utf8, 0, length, seed);
+    }
+
+    /**
+     * MurmurHash3 (x86, 32-bit) of data[off .. off + length)
+     */
+    public static int murmur3(byte[] data, int off, int length, int seed) {
+        int h = seed;
+        int blocks = length >> 2;
+        for (int b = 0; b < blocks; b++) {
+            int p = off + (b << 2);
+            int k = (data[p] & 0xFF) | (data[p + 1] & 0xFF) << 8
+                    | (data[p + 2] & 0xFF) << 16 | (data[p + 3] & 0xFF) << 24;
+            h = mixH(h, mixK(k));
+        }
+
+        int tail = off + (blocks << 2);
+        int remaining = length & 3;
+        if (remaining > 0) {
+            int k = data[tail] & 0xFF;
+            if (remaining >= 2) {
+                k ^= (data[tail + 1] & 0xFF) << 8;
+            }
+            if (remaining == 3) {
+                k ^= (data[tail + 2] & 0xFF) << 16;
+            }
+            h ^= mixK(k);
+        }
+        return fmix(h ^ length);
+    }
+
+    /**
+     * MurmurHash3 (x86, 32-bit) of a little-endian 64-bit value given as two words
+     */
+    private static int murmur3(int low, int high, int seed) {
+        int h = mixH(seed, mixK(low));
+        h = mixH(h, mixK(high));
+        return fmix(h ^ 8);
+    }
+
+    private static int mixK(int k) {
+        k *= C1;
+        k = Integer.rotateLeft(k, 15);
+        return k * C2;
+    }
+
+    private static int mixH(int h, int k) {
+        h ^= k;
+        h = Integer.rotateLeft(h, 13);
+        return h * 5 + 0xe6546b64;
+    }
+
+    private static int fmix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
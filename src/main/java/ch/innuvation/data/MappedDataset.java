@@ -0,0 +1,198 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Row-major binary dataset file, read through memory mapping
+ *
+ * File layout (little-endian):
+ * ```
+ * int    magic        'LRDS'
+ * int    version      1
+ * long   numRows
+ * int    numFeatures
+ * int    numOutputs
+ * long   reserved
+ * double rows[numRows][numFeatures + numOutputs]   // x₁ .. xₙ, y₁ .. yₖ per row
+ * ```
+ *
+ * The file is mapped in windows of whole rows (a single mapping is limited to
+ * 2 GB), so rows are copied straight from the page cache into the trainer's
+ * block buffers and files larger than RAM are streamed by the OS.
+ */
+public final class MappedDataset implements RowSource, AutoCloseable {
+    static final int MAGIC = 0x5344524C;  // "LRDS" read as little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long numRows;
+    private final int numFeatures;
+    private final int numOutputs;
+    private final int rowDoubles;
+    private final long rowsPerWindow;
+    private final DoubleBuffer[] windows;
+
+    private MappedDataset(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated dataset header");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a dataset file (bad magic)");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported dataset version " + version);
+        }
+        numRows = header.getLong();
+        numFeatures = header.getInt();
+        numOutputs = header.getInt();
+        if (numRows < 0 || numFeatures < 0 || numOutputs < 0 || (long) numFeatures + numOutputs == 0
+                || (long) numFeatures + numOutputs > Integer.MAX_VALUE) {
+            throw new IOException("Malformed dataset header: " + numRows + " rows, "
+                    + numFeatures + " features, " + numOutputs + " outputs");
+        }
+        rowDoubles = numFeatures + numOutputs;
+
+        long rowBytes = (long) rowDoubles * Double.BYTES;
+        long size = channel.size();
+        if (numRows > (size - HEADER_BYTES) / rowBytes || size != HEADER_BYTES + numRows * rowBytes) {
+            throw new IOException("Malformed dataset: " + size + " bytes do not hold exactly "
+                    + numRows + " rows of " + rowDoubles + " values");
+        }
+        rowsPerWindow = Math.max(1, MAX_WINDOW_BYTES / rowBytes);
+        int numWindows = (int) ((numRows + rowsPerWindow - 1) / rowsPerWindow);
+        windows = new DoubleBuffer[numWindows];
+        for (int i = 0; i < numWindows; i++) {
+            long first = i * rowsPerWindow;
+            long rows = Math.min(rowsPerWindow, numRows - first);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_BYTES + first * rowBytes, rows * rowBytes);
+            windows[i] = mapped.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Map an existing dataset file
+     */
+    public static MappedDataset open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedDataset(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write in-heap training data to a dataset file
+     * @param X Features [numSamples][numFeatures]
+     * @param Y Targets [numSamples][numOutputs]
+     */
+    public static void write(Path path, double[][] X, double[][] Y) throws IOException {
+        if (X.length != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        int numFeatures = X.length == 0 ? 0 : X[0].length;
+        int numOutputs = Y.length == 0 ? 0 : Y[0].length;
+        if (numFeatures + numOutputs == 0) {
+            throw new IllegalArgumentException("Dataset must have at least one column");
+        }
+        for (int i = 0; i < X.length; i++) {
+            if (X[i].length != numFeatures || Y[i].length != numOutputs) {
+                throw new IllegalArgumentException("Row has the wrong number of features or outputs");
+            }
+        }
+        int rowBytes = (numFeatures + numOutputs) * Double.BYTES;
+        if (rowBytes > WRITE_BUFFER_BYTES) {
+            throw new IllegalArgumentException("Row too wide for the write buffer");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(X.length)
+                  .putInt(numFeatures).putInt(numOutputs).putLong(0L);
+            for (int i = 0; i < X.length; i++) {
+                if (buffer.remaining() < rowBytes) {
+                    drain(channel, buffer);
+                }
+                for (double v : X[i]) {
+                    buffer.putDouble(v);
+                }
+                for (double v : Y[i]) {
+                    buffer.putDouble(v);
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public long numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numOutputs;
+    }
+
+    @Override
+    public int read(long firstRow, int maxRows, double[] x, double[] y) {
+        int count = (int) Math.max(0, Math.min(maxRows, numRows - firstRow));
+        int done = 0;
+        while (done < count) {
+            long row = firstRow + done;
+            int inWindow = (int) (row % rowsPerWindow);
+            int rows = (int) Math.min(count - done, rowsPerWindow - inWindow);
+
+            // Duplicate so concurrent readers never share a position
+            DoubleBuffer window = windows[(int) (row / rowsPerWindow)].duplicate();
+            window.position(inWindow * rowDoubles);
+            for (int r = done; r < done + rows; r++) {
+                window.get(x, r * numFeatures, numFeatures);
+                window.get(y, r * numOutputs, numOutputs);
+            }
+            done += rows;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ch.innuvation.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file holding the weights of a trained model
+ *
+ * File layout (little-endian):
+ * ```
+ * int    magic        'LRMD'
+ * int    version      1
+ * int    modelType    1 = linear regression, 2 = logistic regression
+ * int    rows         numFeatures + 1 (bias row first)
+ * int    cols         numOutputs or numClasses
+ * int    reserved
+ * long   checksum     CRC-32C of bytes [0, 24) and of the weight block
+ * ...    padding to byte 64
+ * double weights[rows][cols]   // row-major, 64-byte aligned
+ * ```
+ *
+ * Reading maps the file, checks the checksum on the mapped bytes and copies
+ * the weight block into the model's array in one bulk transfer; nothing is
+ * parsed, so loading costs about as much as reading the bytes once.
+ */
+public final class ModelFile {
+    public static final int LINEAR_REGRESSION = 1;
+    public static final int LOGISTIC_REGRESSION = 2;
+
+    static final int MAGIC = 0x444D524C;  // "LRMD" read as little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    private static final int CHECKED_HEADER_BYTES = 24;
+
+    private final int modelType;
+    private final int rows;
+    private final int cols;
+    private final double[] weights;
+
+    private ModelFile(int modelType, int rows, int cols, double[] weights) {
+        this.modelType = modelType;
+        this.rows = rows;
+        this.cols = cols;
+        this.weights = weights;
+    }
+
+    /**
+     * Write model weights to a file
+     * @param modelType {@link #LINEAR_REGRESSION} or {@link #LOGISTIC_REGRESSION}
+     * @param weights Row-major weights [rows * cols]
+     */
+    public static void write(Path path, int modelType, double[] weights, int rows, int cols) throws IOException {
+        if (weights.length != rows * cols) {
+            throw new IllegalArgumentException("Weights do not match the shape " + rows + " x " + cols);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + weights.length * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(modelType)
+              .putInt(rows).putInt(cols).putInt(0);
+        buffer.position(HEADER_BYTES);
+        buffer.asDoubleBuffer().put(weights);
+        buffer.putLong(CHECKED_HEADER_BYTES, checksum(buffer));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Map a model file, verify it and load its weights
+     */
+    public static ModelFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Truncated model header");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a model file (bad magic)");
+            }
+            int version = mapped.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported model version " + version);
+            }
+            int modelType = mapped.getInt(8);
+            int rows = mapped.getInt(12);
+            int cols = mapped.getInt(16);
+            if (rows <= 0 || cols <= 0 || size != HEADER_BYTES + (long) rows * cols * Double.BYTES) {
+                throw new IOException("Truncated or malformed model: " + rows + " x " + cols + " weights");
+            }
+            if (mapped.getLong(CHECKED_HEADER_BYTES) != checksum(mapped)) {
+                throw new IOException("Model checksum mismatch");
+            }
+
+            double[] weights = new double[rows * cols];
+            mapped.position(HEADER_BYTES);
+            mapped.asDoubleBuffer().get(weights);
+            return new ModelFile(modelType, rows, cols, weights);
+        }
+    }
+
+    /**
+     * CRC-32C of the checked header fields and of the weight block
+     */
+    private static long checksum(ByteBuffer file) {
+        CRC32C crc = new CRC32C();
+        crc.update(file.duplicate().position(0).limit(CHECKED_HEADER_BYTES));
+        crc.update(file.duplicate().position(HEADER_BYTES).limit(file.capacity()));
+        return crc.getValue();
+    }
+
+    public int modelType() { return modelType; }
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+
+    /**
+     * Row-major weights [rows * cols], bias row first
+     */
+    public double[] weights() { return weights; }
+}
@@ -0,0 +1,35 @@
+package ch.innuvation.data;
+
+/**
+ * Training data that is read block by block instead of being held in the heap
+ *
+ * Trainers pull consecutive row blocks into reusable row-major buffers, so the
+ * dataset can be larger than the JVM heap (or than RAM, when backed by a
+ * memory-mapped file).
+ */
+public interface RowSource {
+
+    long numRows();
+
+    int numFeatures();
+
+    int numOutputs();
+
+    /**
+     * Copy up to maxRows rows starting at firstRow into packed row-major buffers
+     * @param firstRow Index of the first row to read
+     * @param maxRows Maximum number of rows to read
+     * @param x Receives features [maxRows * numFeatures]
+     * @param y Receives targets [maxRows * numOutputs]
+     * @return Number of rows actually read: at least 1 while firstRow < numRows(),
+     *         0 at the end of the data (trainers fail on 0 before the end)
+     */
+    int read(long firstRow, int maxRows, double[] x, double[] y);
+
+    /**
+     * Suggested number of rows per block, about 8 MB of doubles
+     */
+    default int blockRows() {
+        return Math.max(64, (1 << 20) / Math.max(1, numFeatures() + numOutputs()));
+    }
+}
@@ -0,0 +1,77 @@
+package ch.innuvation.experiments;
+
+import ch.innuvation.linearregression.LinearRegression;
+import ch.innuvation.logisticregression.LogisticRegression;
+import ch.innuvation.training.ChunkedExecutor;
+
+import java.util.Random;
+
+/**
+ * Compares scoring a large block of rows with a per-row predictInto loop
+ * against predictBatch (one matrix product, optionally multi-threaded)
+ */
+public class BatchPredictionBenchmark {
+    private static final int NUM_ROWS = 1_000_000;
+    private static final int NUM_FEATURES = 20;
+    private static final int NUM_OUTPUTS = 3;
+    private static final int REPEATS = 5;
+
+    public static void main(String[] args) {
+        Random rand = new Random(42);
+        double[][] X = new double[2000][NUM_FEATURES];
+        double[][] Y = new double[2000][NUM_OUTPUTS];
+        for (int i = 0; i < X.length; i++) {
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                X[i][f] = rand.nextDouble();
+            }
+            Y[i][rand.nextInt(NUM_OUTPUTS)] = 1.0;
+        }
+
+        LinearRegression linear = new LinearRegression(true);
+        linear.train(X, Y);
+        LogisticRegression logistic = new LogisticRegression(0.5, 200);
+        logistic.train(X, Y);
+
+        double[] features = new double[NUM_ROWS * NUM_FEATURES];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = rand.nextDouble();
+        }
+        double[] out = new double[NUM_ROWS * NUM_OUTPUTS];
+
+        System.out.println("=".repeat(60));
+        System.out.println("SCORING " + NUM_ROWS + " ROWS (best of " + REPEATS + ")");
+        System.out.println("=".repeat(60));
+
+        report("LinearRegression per-row loop", time(() -> {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                linear.predictInto(features, i * NUM_FEATURES, out, i * NUM_OUTPUTS);
+            }
+        }));
+        report("LinearRegression predictBatch", time(() -> linear.predictBatch(features, NUM_ROWS, out)));
+        linear.setExecutor(ChunkedExecutor.common());
+        report("LinearRegression predictBatch (parallel)", time(() -> linear.predictBatch(features, NUM_ROWS, out)));
+
+        report("LogisticRegression per-row loop", time(() -> {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                logistic.predictInto(features, i * NUM_FEATURES, out, i * NUM_OUTPUTS);
+            }
+        }));
+        report("LogisticRegression predictBatch", time(() -> logistic.predictBatch(features, NUM_ROWS, out)));
+        logistic.setExecutor(ChunkedExecutor.common());
+        report("LogisticRegression predictBatch (parallel)", time(() -> logistic.predictBatch(features, NUM_ROWS, out)));
+    }
+
+    private static long time(Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < REPEATS; r++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("%-44s %8.1f ms %8.1f M rows/s%n", name, nanos / 1e6, NUM_ROWS / (nanos / 1e3));
+    }
+}
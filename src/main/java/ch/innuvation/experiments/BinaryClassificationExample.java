@@ -2,6 +2,7 @@ package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.LinearRegression;
 import ch.innuvation.logisticregression.LogisticRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BinaryBoundaryPanel;
 
 import javax.swing.*;
@@ -52,6 +53,7 @@ public class BinaryClassificationExample {
         // Train Linear Regression
         System.out.println("--- LINEAR REGRESSION (Closed-Form) ---");
         LinearRegression lr = new LinearRegression(true);
+        lr.setTrainingListener(new ConsoleTrainingListener());
         lr.train(X, Y);
         System.out.println("Weights (bias, w1, w2): " + weightsToString(lr.getWeights()));
         System.out.println();
@@ -59,6 +61,7 @@ public class BinaryClassificationExample {
         // Train Logistic Regression
         System.out.println("--- LOGISTIC REGRESSION (Gradient Descent) ---");
         LogisticRegression logistic = new LogisticRegression(0.5, 2000);
+        logistic.setTrainingListener(new ConsoleTrainingListener());
         logistic.train(X, Y);
         System.out.println("Weights (bias, w1, w2): " + weightsToString(logistic.getWeights()));
         System.out.println();
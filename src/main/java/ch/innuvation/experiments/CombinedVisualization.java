@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.SimpleLinearRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BinaryBoundaryPanel;
 import ch.innuvation.ui.ErrorSurface3DPanel;
 
@@ -55,7 +56,11 @@ public class CombinedVisualization {
 
         // Train with gradient descent
         SimpleLinearRegression model = new SimpleLinearRegression(0.5, 500);
+        model.setTrainingListener(new ConsoleTrainingListener(100));
         model.train(X, yRegression);
+        double[] start = model.getInitialWeights();
+        System.out.println("Started gradient descent from: w0=" + start[0] + ", w1=" + start[1] + ", w2=" + start[2]);
+        System.out.println("Final weights: w0=" + model.getW0() + ", w1=" + model.getW1() + ", w2=" + model.getW2());
 
         System.out.println();
         System.out.println("=".repeat(70));
@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.SimpleLinearRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.ErrorSurface3DPanel;
 
 import javax.swing.*;
@@ -45,7 +46,11 @@ public class ErrorSurface3DVisualization {
 
         // Train with gradient descent
         SimpleLinearRegression model = new SimpleLinearRegression(0.5, 500);
+        model.setTrainingListener(new ConsoleTrainingListener(100));
         model.train(X, y);
+        double[] start = model.getInitialWeights();
+        System.out.println("Started gradient descent from: w0=" + start[0] + ", w1=" + start[1] + ", w2=" + start[2]);
+        System.out.println("Final weights: w0=" + model.getW0() + ", w1=" + model.getW1() + ", w2=" + model.getW2());
 
         System.out.println();
         System.out.println("=".repeat(70));
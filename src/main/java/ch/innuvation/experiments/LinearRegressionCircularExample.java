@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.LinearRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BoundaryPanelMulti;
 
 import javax.swing.*;
@@ -38,6 +39,7 @@ public class LinearRegressionCircularExample {
         System.out.println("Note: Linear regression creates LINEAR decision boundaries,");
         System.out.println("      so circular patterns won't be well separated.");
         long startTime = System.currentTimeMillis();
+        lr.setTrainingListener(new ConsoleTrainingListener());
         lr.train(X, Y);
         long endTime = System.currentTimeMillis();
         System.out.println("Training completed in " + (endTime - startTime) + " ms");
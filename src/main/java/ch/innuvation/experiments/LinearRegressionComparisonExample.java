@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.LinearRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BoundaryPanelMulti;
 
 import javax.swing.*;
@@ -37,6 +38,7 @@ public class LinearRegressionComparisonExample {
         System.out.println("=".repeat(60));
 
         LinearRegression lrGD = new LinearRegression(0.1, 2000);
+        lrGD.setTrainingListener(new ConsoleTrainingListener());
         long startGD = System.currentTimeMillis();
         lrGD.train(X, Y);
         long endGD = System.currentTimeMillis();
@@ -48,6 +50,7 @@ public class LinearRegressionComparisonExample {
         System.out.println("=".repeat(60));
 
         LinearRegression lrCF = new LinearRegression(true);
+        lrCF.setTrainingListener(new ConsoleTrainingListener());
         long startCF = System.currentTimeMillis();
         lrCF.train(X, Y);
         long endCF = System.currentTimeMillis();
@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.linearregression.LinearRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BoundaryPanelMulti;
 
 import javax.swing.*;
@@ -65,6 +66,7 @@ public class LinearRegressionExample3Region {
         System.out.println("Note: Linear regression is NOT designed for classification,");
         System.out.println("      but we can use it by predicting one-hot vectors.");
         long startTime = System.currentTimeMillis();
+        lr.setTrainingListener(new ConsoleTrainingListener());
         lr.train(X, Y);
         long endTime = System.currentTimeMillis();
         System.out.println("Training completed in " + (endTime - startTime) + " ms");
@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.logisticregression.LogisticRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BoundaryPanelMulti;
 
 import javax.swing.*;
@@ -39,6 +40,7 @@ public class LogisticRegressionCircularExample {
         System.out.println("Note: Logistic regression creates LINEAR decision boundaries,");
         System.out.println("      so circular patterns won't be perfectly separated.");
         long startTime = System.currentTimeMillis();
+        lr.setTrainingListener(new ConsoleTrainingListener());
         lr.train(X, Y);
         long endTime = System.currentTimeMillis();
         System.out.println("Training completed in " + (endTime - startTime) + " ms");
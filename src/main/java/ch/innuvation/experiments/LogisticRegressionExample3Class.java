@@ -1,6 +1,7 @@
 package ch.innuvation.experiments;
 
 import ch.innuvation.logisticregression.LogisticRegression;
+import ch.innuvation.training.ConsoleTrainingListener;
 import ch.innuvation.ui.BoundaryPanelMulti;
 
 import javax.swing.*;
@@ -63,6 +64,7 @@ public class LogisticRegressionExample3Class {
 
         System.out.println("Training Logistic Regression model...");
         long startTime = System.currentTimeMillis();
+        lr.setTrainingListener(new ConsoleTrainingListener());
         lr.train(X, Y);
         long endTime = System.currentTimeMillis();
         System.out.println("Training completed in " + (endTime - startTime) + " ms");
@@ -0,0 +1,83 @@
+package ch.innuvation.experiments;
+
+import ch.innuvation.linearregression.LinearRegression;
+import ch.innuvation.logisticregression.LogisticRegression;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures bytes allocated per prediction for predict() vs predictInto()
+ *
+ * Uses the per-thread allocation counter of the HotSpot ThreadMXBean, so it
+ * reports exactly what the prediction loop allocated on this thread. After
+ * warm-up (JIT compilation), predictInto() should report 0 B/op.
+ */
+public class PredictionAllocationBenchmark {
+    private static final int NUM_FEATURES = 20;
+    private static final int NUM_OUTPUTS = 3;
+    private static final int WARMUP = 200_000;
+    private static final int MEASURED = 1_000_000;
+
+    public static void main(String[] args) {
+        Random rand = new Random(42);
+        double[][] X = new double[2000][NUM_FEATURES];
+        double[][] Y = new double[2000][NUM_OUTPUTS];
+        for (int i = 0; i < X.length; i++) {
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                X[i][f] = rand.nextDouble();
+            }
+            Y[i][rand.nextInt(NUM_OUTPUTS)] = 1.0;
+        }
+
+        LinearRegression linear = new LinearRegression(true);
+        linear.train(X, Y);
+        LogisticRegression logistic = new LogisticRegression(0.5, 200);
+        logistic.train(X, Y);
+
+        double[] out = new double[NUM_OUTPUTS];
+
+        System.out.println("=".repeat(60));
+        System.out.println("ALLOCATION PER PREDICTION (" + MEASURED + " calls each)");
+        System.out.println("=".repeat(60));
+
+        report("LinearRegression.predict", measure(X, x -> sink(linear.predict(x))));
+        report("LinearRegression.predictInto", measure(X, x -> { linear.predictInto(x, out); sink(out); }));
+        report("LogisticRegression.predict", measure(X, x -> sink(logistic.predict(x))));
+        report("LogisticRegression.predictInto", measure(X, x -> { logistic.predictInto(x, out); sink(out); }));
+    }
+
+    private static double blackhole;
+
+    private static void sink(double[] v) {
+        blackhole += v[0];
+    }
+
+    private interface Call {
+        void run(double[] x);
+    }
+
+    /**
+     * @return {bytes per call, nanos per call}
+     */
+    private static double[] measure(double[][] X, Call call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run(X[i % X.length]);
+        }
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long bytesBefore = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            call.run(X[i % X.length]);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = bean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return new double[]{(double) bytes / MEASURED, (double) elapsed / MEASURED};
+    }
+
+    private static void report(String name, double[] result) {
+        System.out.printf("%-34s %8.1f B/op %8.1f ns/op%n", name, result[0], result[1]);
+    }
+}
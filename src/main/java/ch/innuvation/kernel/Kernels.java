@@ -0,0 +1,95 @@
+package ch.innuvation.kernel;
+
+/**
+ * Inner-loop numeric kernels shared by the models and {@code Matrix}
+ *
+ * Two implementations exist: {@link ScalarKernels} (plain Java loops, always
+ * available) and {@code VectorKernels} (explicit SIMD through the incubating
+ * JDK Vector API, compiled only with the Maven {@code vector} profile).
+ * The implementation is chosen once, when this interface is initialized,
+ * from the system property {@value #PROPERTY}:
+ * <ul>
+ *   <li>{@code auto} (default): vector kernels if they are on the class path and
+ *       the JVM was started with {@code --add-modules jdk.incubator.vector}, scalar otherwise</li>
+ *   <li>{@code vector}: vector kernels, failing if they are unavailable</li>
+ *   <li>{@code scalar}: scalar kernels</li>
+ * </ul>
+ */
+public interface Kernels {
+    String PROPERTY = "ch.innuvation.kernels";
+
+    /**
+     * Implementation selected for this JVM
+     */
+    Kernels ACTIVE = select(System.getProperty(PROPERTY, "auto"));
+
+    /**
+     * Name of the implementation, for logging
+     */
+    String name();
+
+    /**
+     * Σ a[aOff + k] * b[bOff + k] for k in [0, n)
+     */
+    double dot(double[] a, int aOff, double[] b, int bOff, int n);
+
+    /**
+     * y[yOff + k] += alpha * x[xOff + k] for k in [0, n)
+     */
+    void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n);
+
+    /**
+     * Σ a[aOff + k] * b[bOff + k] for k in [0, n), in single precision
+     */
+    float dot(float[] a, int aOff, float[] b, int bOff, int n);
+
+    /**
+     * y[yOff + k] += alpha * x[xOff + k] for k in [0, n), widening single-precision x
+     * into a double accumulator y
+     */
+    void axpy(double alpha, float[] x, int xOff, double[] y, int yOff, int n);
+
+    /**
+     * C += A * Bt^T on row-major buffers, where every element of C is the dot
+     * product of a row of A with a row of Bt
+     * @param rows Rows of A and C
+     * @param cols Rows of Bt, columns of C
+     * @param n Columns of A and Bt
+     */
+    void gemmNt(double[] a, int aOff, int aStride,
+                double[] bt, int btOff, int btStride,
+                double[] c, int cOff, int cStride,
+                int rows, int cols, int n);
+
+    /**
+     * In-place softmax of v[off .. off + n): exp(v - max) normalized to sum to 1
+     */
+    void softmax(double[] v, int off, int n);
+
+    private static Kernels select(String choice) {
+        switch (choice) {
+            case "scalar":
+                return new ScalarKernels();
+            case "vector":
+                return loadVectorKernels();
+            case "auto":
+                try {
+                    return loadVectorKernels();
+                } catch (IllegalStateException e) {
+                    return new ScalarKernels();
+                }
+            default:
+                throw new IllegalArgumentException("Unknown " + PROPERTY + " value: " + choice);
+        }
+    }
+
+    private static Kernels loadVectorKernels() {
+        try {
+            Class<?> type = Class.forName("ch.innuvation.kernel.VectorKernels");
+            return (Kernels) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Vector kernels unavailable (build with -Pvector and run with "
+                    + "--add-modules jdk.incubator.vector)", e);
+        }
+    }
+}
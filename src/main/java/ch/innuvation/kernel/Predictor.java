@@ -0,0 +1,28 @@
+package ch.innuvation.kernel;
+
+/**
+ * Prediction function of a trained model with frozen weights
+ *
+ * Obtained from {@code compile()} on a trained model (see {@link PredictorCompiler}).
+ * A predictor keeps its own copy of the weights, so training the model further
+ * does not change it. Predictors hold no mutable state and are thread-safe.
+ */
+@FunctionalInterface
+public interface Predictor {
+
+    /**
+     * Predict one row of a flat buffer into another flat buffer (no allocation)
+     * @param x Buffer holding the input row
+     * @param xOff Index of the first feature of the row in x
+     * @param out Buffer receiving the prediction
+     * @param outOff Index where the outputs (or class probabilities) are written
+     */
+    void predictInto(double[] x, int xOff, double[] out, int outOff);
+
+    /**
+     * Predict a single input into a caller-owned buffer (no allocation)
+     */
+    default void predictInto(double[] x, double[] out) {
+        predictInto(x, 0, out, 0);
+    }
+}
@@ -0,0 +1,375 @@
+package ch.innuvation.kernel;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the frozen weights of a trained model into a {@link Predictor}
+ *
+ * For small models the weights are baked into a generated hidden class
+ * ({@link MethodHandles.Lookup#defineHiddenClass}): every weight becomes a
+ * constant of the class file and the dot products are unrolled into
+ * straight-line code, one multiply-add per non-zero weight, accumulated in the
+ * same order as the models' own predictRow. The JIT then sees no loops, no
+ * loads of weights and no bounds checks other than those on x and out.
+ *
+ * The class file is written by hand (a few dozen bytes of header plus the
+ * bytecode): the java.lang.classfile API is not public in Java 21, our target
+ * (it is a preview API only from JDK 22). The class deliberately uses
+ * class-file version 61 (Java 17), since it needs no newer feature and the
+ * same bytes then load on any supported runtime. Straight-line code needs no
+ * stack map frames, which keeps the writer small.
+ *
+ * Models with more than {@link #MAX_UNROLLED_FEATURES} features, or whose
+ * unrolled method would be too large for the JIT to compile, get a generic
+ * predictor over a transposed copy of the weights instead.
+ */
+public final class PredictorCompiler {
+    /** Most features for which the dot products are unrolled */
+    public static final int MAX_UNROLLED_FEATURES = 100;
+
+    /** HotSpot does not JIT-compile methods with more bytecode than this (DontCompileHugeMethods) */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    private static final String CLASS_NAME = "ch/innuvation/kernel/CompiledPredictor";
+    private static final int JAVA_17 = 61;  // class-file version of the generated class
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // Opcodes of the JVM instructions the generator emits
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC2_W = 0x14;
+    private static final int ILOAD = 0x15;
+    private static final int DLOAD = 0x18;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int DALOAD = 0x31;
+    private static final int DSTORE = 0x39;
+    private static final int DASTORE = 0x52;
+    private static final int DADD = 0x63;
+    private static final int DMUL = 0x6b;
+    private static final int IADD = 0x60;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    // Locals of predictInto(double[] x, int xOff, double[] out, int outOff)
+    private static final int OUT_OFF = 4;
+    private static final int FIRST_FEATURE_SLOT = 5;
+
+    private PredictorCompiler() {
+    }
+
+    /**
+     * Build a predictor for out[j] = w[0][j] + Σᵢ (w[i+1][j] * x[i]),
+     * optionally followed by softmax over the outputs
+     * @param weights Row-major weights [rows * cols], bias row first (copied)
+     * @param rows numFeatures + 1
+     * @param cols numOutputs or numClasses
+     * @param softmax Whether to turn the outputs into class probabilities
+     */
+    public static Predictor compile(double[] weights, int rows, int cols, boolean softmax) {
+        if (rows <= 0 || cols <= 0 || weights.length < rows * cols) {
+            throw new IllegalArgumentException("Weights do not match the shape " + rows + " x " + cols);
+        }
+        if (rows - 1 <= MAX_UNROLLED_FEATURES) {
+            byte[] classFile = classFile(weights, rows, cols, softmax);
+            if (classFile != null) {
+                return define(classFile);
+            }
+        }
+        return new GenericPredictor(weights, rows, cols, softmax);
+    }
+
+    /**
+     * Called by generated predictors
+     */
+    static void softmax(double[] v, int off, int n) {
+        Kernels.ACTIVE.softmax(v, off, n);
+    }
+
+    private static Predictor define(byte[] classFile) {
+        try {
+            Class<?> type = MethodHandles.lookup().defineHiddenClass(classFile, true).lookupClass();
+            return (Predictor) type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not define compiled predictor", e);
+        }
+    }
+
+    /**
+     * Class file of a final class implementing {@link Predictor} with the
+     * weights unrolled into predictInto, or null if the method would exceed
+     * {@link #HUGE_METHOD_LIMIT}
+     */
+    private static byte[] classFile(double[] w, int rows, int cols, boolean softmax) {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef("java/lang/Object");
+        int predictorInterface = pool.classRef("ch/innuvation/kernel/Predictor");
+        int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+        int code = pool.utf8("Code");
+        int initName = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("()V");
+        int predictName = pool.utf8("predictInto");
+        int predictDescriptor = pool.utf8("([DI[DI)V");
+
+        int numFeatures = rows - 1;
+        Bytes predict = new Bytes();
+
+        // Load every feature that has a non-zero weight once: local = x[xOff + i]
+        int[] slots = new int[numFeatures];
+        int nextSlot = FIRST_FEATURE_SLOT;
+        for (int i = 0; i < numFeatures; i++) {
+            slots[i] = -1;
+            for (int j = 0; j < cols; j++) {
+                if (w[(i + 1) * cols + j] != 0.0) {
+                    slots[i] = nextSlot;
+                    nextSlot += 2;
+                    predict.u1(ALOAD_1).u1(ILOAD_2);
+                    addConstant(predict, i);
+                    predict.u1(DALOAD).u1(DSTORE).u1(slots[i]);
+                    break;
+                }
+            }
+        }
+
+        // out[outOff + j] = ((w[0][j] + x0 * w[1][j]) + x1 * w[2][j]) + ...
+        for (int j = 0; j < cols; j++) {
+            predict.u1(ALOAD_3).u1(ILOAD).u1(OUT_OFF);
+            addConstant(predict, j);
+            predict.u1(LDC2_W).u2(pool.doubleConstant(w[j]));
+            for (int i = 0; i < numFeatures; i++) {
+                double weight = w[(i + 1) * cols + j];
+                if (weight != 0.0) {
+                    predict.u1(DLOAD).u1(slots[i])
+                           .u1(LDC2_W).u2(pool.doubleConstant(weight))
+                           .u1(DMUL).u1(DADD);
+                }
+            }
+            predict.u1(DASTORE);
+        }
+
+        if (softmax) {
+            int softmaxRef = pool.methodRef("ch/innuvation/kernel/PredictorCompiler", "softmax", "([DII)V");
+            predict.u1(ALOAD_3).u1(ILOAD).u1(OUT_OFF);
+            pushInt(predict, cols);
+            predict.u1(INVOKESTATIC).u2(softmaxRef);
+        }
+        predict.u1(RETURN);
+
+        if (predict.length() > HUGE_METHOD_LIMIT || pool.count() > 0xffff) {
+            return null;
+        }
+
+        Bytes init = new Bytes()
+                .u1(ALOAD_0).u1(INVOKESPECIAL).u2(objectInit).u1(RETURN);
+
+        Bytes out = new Bytes();
+        out.u4(0xCAFEBABE).u2(0).u2(JAVA_17);
+        pool.writeTo(out);
+        out.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER).u2(thisClass).u2(superClass);
+        out.u2(1).u2(predictorInterface);
+        out.u2(0);  // fields
+        out.u2(2);  // methods
+        // Stack: array, index, accumulator (2), feature (2), weight (2)
+        method(out, initName, initDescriptor, code, 1, 1, init);
+        method(out, predictName, predictDescriptor, code, 8, nextSlot, predict);
+        out.u2(0);  // attributes
+        return out.toByteArray();
+    }
+
+    private static void method(Bytes out, int name, int descriptor, int codeAttribute,
+                               int maxStack, int maxLocals, Bytes code) {
+        out.u2(ACC_PUBLIC).u2(name).u2(descriptor);
+        out.u2(1);  // attributes: Code
+        out.u2(codeAttribute).u4(12 + code.length());
+        out.u2(maxStack).u2(maxLocals).u4(code.length()).append(code);
+        out.u2(0);  // exception table
+        out.u2(0);  // attributes of Code
+    }
+
+    /**
+     * Add a constant to the int on top of the stack (nothing for 0)
+     */
+    private static void addConstant(Bytes code, int value) {
+        if (value != 0) {
+            pushInt(code, value);
+            code.u1(IADD);
+        }
+    }
+
+    private static void pushInt(Bytes code, int value) {
+        if (value >= 0 && value <= 5) {
+            code.u1(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.u1(BIPUSH).u1(value);
+        } else {
+            code.u1(SIPUSH).u2(value);
+        }
+    }
+
+    /**
+     * Constant pool of the class being written, deduplicating entries
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int METHOD_REF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final Bytes entries = new Bytes();
+        private final Map<List<Object>, Integer> indices = new HashMap<>();
+        private int count = 1;
+
+        int count() {
+            return count;
+        }
+
+        int utf8(String value) {
+            Integer index = indices.get(List.of(UTF8, value));
+            if (index != null) {
+                return index;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);  // only ASCII names are written
+            entries.u1(UTF8).u2(bytes.length).append(bytes, bytes.length);
+            return add(List.of(UTF8, value), 1);
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            Integer index = indices.get(List.of(CLASS, name));
+            if (index != null) {
+                return index;
+            }
+            entries.u1(CLASS).u2(name);
+            return add(List.of(CLASS, name), 1);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            Integer nameAndType = indices.get(List.of(NAME_AND_TYPE, nameIndex, descriptorIndex));
+            if (nameAndType == null) {
+                entries.u1(NAME_AND_TYPE).u2(nameIndex).u2(descriptorIndex);
+                nameAndType = add(List.of(NAME_AND_TYPE, nameIndex, descriptorIndex), 1);
+            }
+            Integer index = indices.get(List.of(METHOD_REF, ownerClass, nameAndType));
+            if (index != null) {
+                return index;
+            }
+            entries.u1(METHOD_REF).u2(ownerClass).u2(nameAndType);
+            return add(List.of(METHOD_REF, ownerClass, nameAndType), 1);
+        }
+
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            Integer index = indices.get(List.of(DOUBLE, bits));
+            if (index != null) {
+                return index;
+            }
+            entries.u1(DOUBLE).u4((int) (bits >>> 32)).u4((int) bits);
+            return add(List.of(DOUBLE, bits), 2);  // long and double entries take two slots
+        }
+
+        private int add(List<Object> key, int slots) {
+            int index = count;
+            indices.put(key, index);
+            count += slots;
+            return index;
+        }
+
+        void writeTo(Bytes out) {
+            out.u2(count).append(entries);
+        }
+    }
+
+    /**
+     * Growable big-endian byte buffer
+     */
+    private static final class Bytes {
+        private byte[] data = new byte[256];
+        private int length;
+
+        int length() {
+            return length;
+        }
+
+        Bytes u1(int value) {
+            if (length == data.length) {
+                data = java.util.Arrays.copyOf(data, data.length * 2);
+            }
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        Bytes u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Bytes u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Bytes append(byte[] bytes, int count) {
+            for (int k = 0; k < count; k++) {
+                u1(bytes[k]);
+            }
+            return this;
+        }
+
+        Bytes append(Bytes other) {
+            return append(other.data, other.length);
+        }
+
+        byte[] toByteArray() {
+            return java.util.Arrays.copyOf(data, length);
+        }
+    }
+
+    /**
+     * Fallback for large models: one dot product per output over a transposed
+     * copy of the weights [cols][rows], so each output reads a contiguous row
+     */
+    private static final class GenericPredictor implements Predictor {
+        private final Kernels kernels = Kernels.ACTIVE;
+        private final double[] transposed;
+        private final int rows;
+        private final int cols;
+        private final boolean softmax;
+
+        GenericPredictor(double[] weights, int rows, int cols, boolean softmax) {
+            this.transposed = new double[rows * cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    transposed[j * rows + i] = weights[i * cols + j];
+                }
+            }
+            this.rows = rows;
+            this.cols = cols;
+            this.softmax = softmax;
+        }
+
+        @Override
+        public void predictInto(double[] x, int xOff, double[] out, int outOff) {
+            for (int j = 0; j < cols; j++) {
+                int row = j * rows;
+                out[outOff + j] = transposed[row] + kernels.dot(x, xOff, transposed, row + 1, rows - 1);
+            }
+            if (softmax) {
+                kernels.softmax(out, outOff, cols);
+            }
+        }
+    }
+}
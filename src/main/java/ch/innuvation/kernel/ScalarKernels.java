@@ -0,0 +1,109 @@
+package ch.innuvation.kernel;
+
+/**
+ * Plain Java kernels, left to the JIT's auto-vectorization
+ */
+public final class ScalarKernels implements Kernels {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        double sum = 0.0;
+        for (int k = 0; k < n; k++) {
+            sum += a[aOff + k] * b[bOff + k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        for (int k = 0; k < n; k++) {
+            y[yOff + k] += alpha * x[xOff + k];
+        }
+    }
+
+    @Override
+    public float dot(float[] a, int aOff, float[] b, int bOff, int n) {
+        float sum = 0.0f;
+        for (int k = 0; k < n; k++) {
+            sum += a[aOff + k] * b[bOff + k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, float[] x, int xOff, double[] y, int yOff, int n) {
+        for (int k = 0; k < n; k++) {
+            y[yOff + k] += alpha * x[xOff + k];
+        }
+    }
+
+    /**
+     * Four rows of A are processed together so each row of Bt is loaded once
+     * per four dot products
+     */
+    @Override
+    public void gemmNt(double[] a, int aOff, int aStride,
+                       double[] bt, int btOff, int btStride,
+                       double[] c, int cOff, int cStride,
+                       int rows, int cols, int n) {
+        int i = 0;
+        for (; i + 4 <= rows; i += 4) {
+            int a0 = aOff + i * aStride;
+            int a1 = a0 + aStride;
+            int a2 = a1 + aStride;
+            int a3 = a2 + aStride;
+            int c0 = cOff + i * cStride;
+            for (int j = 0; j < cols; j++) {
+                int b = btOff + j * btStride;
+                double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                for (int k = 0; k < n; k++) {
+                    double bk = bt[b + k];
+                    s0 += a[a0 + k] * bk;
+                    s1 += a[a1 + k] * bk;
+                    s2 += a[a2 + k] * bk;
+                    s3 += a[a3 + k] * bk;
+                }
+                c[c0 + j] += s0;
+                c[c0 + cStride + j] += s1;
+                c[c0 + 2 * cStride + j] += s2;
+                c[c0 + 3 * cStride + j] += s3;
+            }
+        }
+        for (; i < rows; i++) {
+            int ai = aOff + i * aStride;
+            int ci = cOff + i * cStride;
+            for (int j = 0; j < cols; j++) {
+                c[ci + j] += dot(a, ai, bt, btOff + j * btStride, n);
+            }
+        }
+    }
+
+    @Override
+    public void softmax(double[] v, int off, int n) {
+        // Find max for numerical stability
+        double max = v[off];
+        for (int i = 1; i < n; i++) {
+            if (v[off + i] > max) {
+                max = v[off + i];
+            }
+        }
+
+        // Compute exp(logit - max) and sum
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            v[off + i] = Math.exp(v[off + i] - max);
+            sum += v[off + i];
+        }
+
+        // Normalize
+        double inv = 1.0 / sum;
+        for (int i = 0; i < n; i++) {
+            v[off + i] *= inv;
+        }
+    }
+}
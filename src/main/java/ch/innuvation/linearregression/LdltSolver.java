@@ -0,0 +1,75 @@
+package ch.innuvation.linearregression;
+
+/**
+ * Solves the Normal Equation with a square-root-free factorization A = L D L^T
+ *
+ * L is unit lower-triangular and D diagonal. Costs the same as Cholesky but
+ * never takes a square root, and tolerates diagonal entries that a Cholesky
+ * factorization would reject because of round-off.
+ */
+public class LdltSolver implements LinearSolver {
+    private static final double TOLERANCE = 1e-10;
+
+    @Override
+    public Matrix solve(Matrix A, Matrix B) {
+        int n = A.rows();
+        if (A.cols() != n || B.rows() != n) {
+            throw new IllegalArgumentException("Matrix dimensions do not match");
+        }
+
+        double[] L = new double[n * n];
+        double[] D = new double[n];
+        double[] scratch = new double[n];  // L[j][k] * D[k] for the current row j
+        double scale = 0.0;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, Math.abs(A.get(i, i)));
+        }
+
+        for (int j = 0; j < n; j++) {
+            for (int k = 0; k < j; k++) {
+                scratch[k] = L[j * n + k] * D[k];
+            }
+            // D[j] = A[j][j] - Σₖ L[j][k]² D[k]
+            D[j] = A.get(j, j) - Matrix.dot(L, j * n, scratch, 0, j);
+            if (Math.abs(D[j]) <= TOLERANCE * Math.max(scale, 1.0)) {
+                throw new RuntimeException("Matrix is singular or nearly singular");
+            }
+            L[j * n + j] = 1.0;
+
+            // L[i][j] = (A[i][j] - Σₖ L[i][k] L[j][k] D[k]) / D[j]
+            for (int i = j + 1; i < n; i++) {
+                L[i * n + j] = (A.get(i, j) - Matrix.dot(L, i * n, scratch, 0, j)) / D[j];
+            }
+        }
+
+        Matrix W = B.copy();
+        int k = W.cols();
+        double[] w = W.data();
+
+        // Forward substitution: L Z = B (unit diagonal)
+        for (int i = 0; i < n; i++) {
+            int row = W.index(i, 0);
+            for (int p = 0; p < i; p++) {
+                Matrix.axpy(-L[i * n + p], w, W.index(p, 0), w, row, k);
+            }
+        }
+
+        // Diagonal: D Y = Z
+        for (int i = 0; i < n; i++) {
+            int row = W.index(i, 0);
+            double inv = 1.0 / D[i];
+            for (int j = 0; j < k; j++) {
+                w[row + j] *= inv;
+            }
+        }
+
+        // Backward substitution: L^T W = Y (unit diagonal)
+        for (int i = n - 1; i >= 0; i--) {
+            int row = W.index(i, 0);
+            for (int p = i + 1; p < n; p++) {
+                Matrix.axpy(-L[p * n + i], w, W.index(p, 0), w, row, k);
+            }
+        }
+        return W;
+    }
+}
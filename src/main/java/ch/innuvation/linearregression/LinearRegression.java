@@ -1,16 +1,44 @@
 package ch.innuvation.linearregression;
 
+import ch.innuvation.data.CsrMatrix;
+import ch.innuvation.data.ModelFile;
+import ch.innuvation.data.RowSource;
+import ch.innuvation.kernel.Predictor;
+import ch.innuvation.kernel.PredictorCompiler;
+import ch.innuvation.training.ChunkedExecutor;
+import ch.innuvation.training.ConvergenceMonitor;
+import ch.innuvation.training.Optimizer;
+import ch.innuvation.training.Precision;
+import ch.innuvation.training.StopReason;
+import ch.innuvation.training.StoppingCriteria;
+import ch.innuvation.training.TrainingListener;
+import ch.innuvation.training.TrainingRun;
+import ch.innuvation.training.TrainingSummary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Linear Regression with two training methods:
  * 1. Gradient Descent (iterative optimization)
  * 2. Closed-form solution using Normal Equation: β = (X^T X)^-1 X^T y
+ *    (solved with a {@link LinearSolver}, Cholesky by default, without forming the inverse)
  */
 public class LinearRegression {
-    private double[][] weights;  // [numFeatures + 1][numOutputs] (includes bias)
-    private double learningRate;
+    private Matrix weights;  // [numFeatures + 1][numOutputs] (includes bias), row-major
+    private Optimizer optimizer;
+    private Precision precision = Precision.DOUBLE;
     private int maxIterations;
+    private int batchSize;   // 0 = full-batch gradient descent
     private boolean trained = false;
     private boolean useClosedForm;
+    private LinearSolver solver;
+    private ChunkedExecutor executor = ChunkedExecutor.serial();
+    private StoppingCriteria stoppingCriteria = StoppingCriteria.none();
+    private double[][] validationX;
+    private double[][] validationY;
+    private TrainingSummary summary;
+    private TrainingListener listener = TrainingListener.SILENT;
 
     /**
      * Create a Linear Regression model with gradient descent
@@ -18,18 +46,50 @@ public class LinearRegression {
      * @param maxIterations Maximum number of training iterations
      */
     public LinearRegression(double learningRate, int maxIterations) {
-        this.learningRate = learningRate;
+        this.optimizer = Optimizer.sgd(learningRate);
         this.maxIterations = maxIterations;
         this.useClosedForm = false;
     }
 
+    /**
+     * Create a Linear Regression model with mini-batch stochastic gradient descent
+     *
+     * Each epoch visits the samples in a freshly shuffled order (an index
+     * permutation, the data itself is not copied) and updates the weights
+     * after every batch, so one pass over the data yields numSamples / batchSize
+     * weight updates instead of one.
+     * @param learningRate Learning rate for gradient descent
+     * @param epochs Number of passes over the training data
+     * @param batchSize Number of samples per weight update
+     */
+    public LinearRegression(double learningRate, int epochs, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.optimizer = Optimizer.sgd(learningRate);
+        this.maxIterations = epochs;
+        this.batchSize = batchSize;
+        this.useClosedForm = false;
+    }
+
     /**
      * Create a Linear Regression model with closed-form solution
      * @param useClosedForm Set to true to use Normal Equation: β = (X^T X)^-1 X^T y
      */
     public LinearRegression(boolean useClosedForm) {
+        this(new CholeskySolver());
         this.useClosedForm = useClosedForm;
-        this.learningRate = 0.0;  // Not used for closed-form
+    }
+
+    /**
+     * Create a Linear Regression model with closed-form solution using a specific solver
+     * @param solver Solver for the Normal Equation or the least-squares problem
+     *               ({@link CholeskySolver}, {@link LdltSolver} or {@link QrSolver})
+     */
+    public LinearRegression(LinearSolver solver) {
+        this.useClosedForm = true;
+        this.solver = solver;
+        this.optimizer = null;    // Not used for closed-form
         this.maxIterations = 0;   // Not used for closed-form
     }
 
@@ -46,8 +106,11 @@ public class LinearRegression {
             throw new IllegalArgumentException("X and Y must have same number of samples");
         }
 
+        summary = null;
         if (useClosedForm) {
             trainClosedForm(X, Y);
+        } else if (batchSize > 0) {
+            trainMiniBatch(X, Y);
         } else {
             trainGradientDescent(X, Y);
         }
@@ -56,116 +119,770 @@ public class LinearRegression {
     }
 
     /**
-     * Train using closed-form solution: β = (X^T X)^-1 X^T y
-     * This computes the optimal weights directly without iteration
+     * Train the model from a block-wise data source, e.g. a memory-mapped
+     * {@link ch.innuvation.data.MappedDataset}, without loading it into the heap
+     *
+     * Rows are streamed block by block through the Gram accumulation (closed-form)
+     * or through every gradient pass (gradient descent). Mini-batch SGD shuffles
+     * the visiting order within each block. The QR solver needs the whole design
+     * matrix and is not supported here.
+     * @param data Training rows
      */
-    private void trainClosedForm(double[][] X, double[][] Y) {
-        System.out.println("Training using closed-form solution (Normal Equation)...");
-        long startTime = System.currentTimeMillis();
+    public void train(RowSource data) {
+        if (data.numRows() == 0) {
+            throw new IllegalArgumentException("Training data cannot be empty");
+        }
 
-        int numSamples = X.length;
-        int numFeatures = X[0].length;
-        int numOutputs = Y[0].length;
+        summary = null;
+        if (useClosedForm) {
+            trainClosedForm(data);
+        } else if (batchSize > 0) {
+            trainMiniBatch(data);
+        } else {
+            trainGradientDescent(data);
+        }
 
-        // Add bias column to X: X_augmented = [1, x1, x2, ...]
-        double[][] X_augmented = new double[numSamples][numFeatures + 1];
-        for (int i = 0; i < numSamples; i++) {
-            X_augmented[i][0] = 1.0; // bias term
-            System.arraycopy(X[i], 0, X_augmented[i], 1, numFeatures);
+        trained = true;
+    }
+
+    /**
+     * Train with gradient descent (or mini-batch SGD) on sparse features
+     *
+     * Every pass visits only the stored entries of X, so the forward pass and the
+     * gradient accumulation cost O(nnz · numOutputs) instead of O(N · d · numOutputs);
+     * each weight update still touches all weights. The sparse pass runs on the
+     * calling thread, with a single gradient buffer. Precision settings do not
+     * apply; the entries are already stored as double.
+     * @param X Training features in compressed sparse row format
+     * @param Y Training targets [numSamples][numOutputs]
+     */
+    public void train(CsrMatrix X, double[][] Y) {
+        if (X.numRows() == 0 || Y.length == 0) {
+            throw new IllegalArgumentException("Training data cannot be empty");
+        }
+        if (X.numRows() != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        if (useClosedForm) {
+            throw new IllegalStateException("Sparse training needs a gradient-descent model");
         }
 
-        // Compute X^T
-        double[][] X_T = transpose(X_augmented);
+        summary = null;
+        if (batchSize > 0) {
+            trainMiniBatch(X, Y);
+        } else {
+            trainGradientDescent(X, Y);
+        }
 
-        // Compute X^T X
-        double[][] XTX = matrixMultiply(X_T, X_augmented);
+        trained = true;
+    }
 
-        // Compute (X^T X)^-1
-        double[][] XTX_inv = invert(XTX);
+    /**
+     * Finalize weights from accumulated (possibly merged) sufficient statistics
+     *
+     * Solves the Normal Equation with this model's solver; the statistics can
+     * keep growing afterwards and be solved again at any time.
+     * @param stats X^T X and X^T Y of the training rows, e.g. merged from several shards
+     */
+    public void train(SufficientStatistics stats) {
+        if (!useClosedForm) {
+            throw new IllegalStateException("Training from sufficient statistics needs a closed-form model");
+        }
+        summary = null;
+        weights = stats.solve(solver);
+        trained = true;
+    }
 
-        // Compute X^T y
-        double[][] XTY = matrixMultiply(X_T, Y);
+    /**
+     * Train using closed-form solution: β = (X^T X)^-1 X^T y
+     * This computes the optimal weights directly without iteration
+     */
+    private void trainClosedForm(double[][] X, double[][] Y) {
+        int numSamples = X.length;
+        int numFeatures = X[0].length;
+        int numOutputs = Y[0].length;
+
+        listener.trainingStarted(new TrainingRun(solver.usesNormalEquations()
+                ? "closed-form solution (Normal Equation)" : "closed-form solution (QR least squares)",
+                "MSE", "Iteration", numSamples, 0));
+        long startTime = System.nanoTime();
+        long phaseStart = startTime;
 
-        // Compute β = (X^T X)^-1 X^T y
-        weights = matrixMultiply(XTX_inv, XTY);
+        if (solver.usesNormalEquations()) {
+            // Accumulate X^T X and X^T y in one pass over the rows (implicit bias column)
+            SufficientStatistics stats = new SufficientStatistics(numFeatures, numOutputs);
+            stats.partialFit(X, Y);
+            phaseStart = phaseCompleted("Gram build", phaseStart);
 
-        long endTime = System.currentTimeMillis();
-        System.out.println("Closed-form solution computed in " + (endTime - startTime) + " ms");
+            // Solve (X^T X) β = X^T y
+            weights = stats.solve(solver);
+        } else {
+            // Least squares on the design matrix itself: X_augmented = [1, x1, x2, ...]
+            Matrix X_augmented = new Matrix(numSamples, numFeatures + 1);
+            double[] xa = X_augmented.data();
+            for (int i = 0; i < numSamples; i++) {
+                xa[i * (numFeatures + 1)] = 1.0; // bias term
+                System.arraycopy(X[i], 0, xa, i * (numFeatures + 1) + 1, numFeatures);
+            }
+            weights = solver.solve(X_augmented, Matrix.fromArray(Y));
+        }
+        phaseStart = phaseCompleted("Solve", phaseStart);
 
         // Compute final MSE for reporting
+        double[] prediction = new double[numOutputs];
         double totalLoss = 0.0;
         for (int i = 0; i < numSamples; i++) {
-            double[] prediction = predictSingle(X[i]);
+            predictRow(X[i], 0, prediction, 0);
             for (int j = 0; j < numOutputs; j++) {
                 double error = prediction[j] - Y[i][j];
                 totalLoss += error * error;
             }
         }
         double mse = totalLoss / (numSamples * numOutputs);
-        System.out.printf("Final MSE = %.6f%n", mse);
+        phaseCompleted("MSE evaluation", phaseStart);
+        finishClosedForm(mse, startTime);
+    }
+
+    /**
+     * Closed-form solution streamed block by block from a data source
+     */
+    private void trainClosedForm(RowSource data) {
+        if (!solver.usesNormalEquations()) {
+            throw new IllegalStateException(solver.getClass().getSimpleName()
+                    + " needs the design matrix in memory; use a Normal Equation solver for streamed data");
+        }
+        long numSamples = data.numRows();
+        int numFeatures = data.numFeatures();
+        int numOutputs = data.numOutputs();
+        int blockRows = data.blockRows();
+        double[] x = new double[blockRows * numFeatures];
+        double[] y = new double[blockRows * numOutputs];
+
+        listener.trainingStarted(new TrainingRun("closed-form solution (Normal Equation)",
+                "MSE", "Iteration", numSamples, 0));
+        long startTime = System.nanoTime();
+        long phaseStart = startTime;
+
+        // Accumulate X^T X and X^T y block by block (implicit bias column)
+        SufficientStatistics stats = new SufficientStatistics(numFeatures, numOutputs);
+        stats.partialFit(data);
+        phaseStart = phaseCompleted("Gram build", phaseStart);
+
+        // Solve (X^T X) β = X^T y
+        weights = stats.solve(solver);
+        phaseStart = phaseCompleted("Solve", phaseStart);
+
+        // Compute final MSE for reporting (second pass over the data)
+        double[] prediction = new double[numOutputs];
+        double totalLoss = 0.0;
+        for (long first = 0; first < numSamples; ) {
+            int rows = data.read(first, blockRows, x, y);
+            if (rows <= 0) {
+                throw new IllegalStateException("Row source ended at row " + first + " of " + numSamples);
+            }
+            for (int i = 0; i < rows; i++) {
+                predictRow(x, i * numFeatures, prediction, 0);
+                for (int j = 0; j < numOutputs; j++) {
+                    double error = prediction[j] - y[i * numOutputs + j];
+                    totalLoss += error * error;
+                }
+            }
+            first += rows;
+        }
+        double mse = totalLoss / (numSamples * numOutputs);
+        phaseCompleted("MSE evaluation", phaseStart);
+        finishClosedForm(mse, startTime);
+    }
+
+    /**
+     * One full pass over the training data at the current weights
+     */
+    private interface LossPass {
+        /**
+         * @param gradients Receives the MSE gradient summed over all rows (not yet divided by N)
+         * @return Sum of squared errors over all rows
+         */
+        double run(double[] gradients);
+    }
+
+    /**
+     * One mini-batch epoch over the training data
+     */
+    private interface Epoch {
+        /**
+         * Visit every row once, applying one update per mini-batch
+         * @return Sum of squared errors over all rows, each taken before its batch's update
+         */
+        double run(Optimizer.Updater updater);
     }
 
     /**
      * Train using gradient descent (original implementation)
      */
     private void trainGradientDescent(double[][] X, double[][] Y) {
-        System.out.println("Training using gradient descent...");
 
         int numSamples = X.length;
         int numFeatures = X[0].length;
         int numOutputs = Y[0].length;
+        boolean single = precision == Precision.FLOAT;
 
-        // Initialize weights randomly (small values)
-        weights = new double[numFeatures + 1][numOutputs];
-        java.util.Random rand = new java.util.Random(42);
-        for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[i].length; j++) {
-                weights[i][j] = (rand.nextDouble() - 0.5) * 0.01;
+        // Pack the data once into contiguous row-major buffers of the chosen precision
+        double[] x = single ? null : Matrix.fromArray(X).data();
+        double[] y = single ? null : Matrix.fromArray(Y).data();
+        float[] xf = single ? Matrix.toFloatArray(X) : null;
+        float[] yf = single ? Matrix.toFloatArray(Y) : null;
+
+        double[] w = initializeWeights(numFeatures, numOutputs, new java.util.Random(42));
+        float[] wt = single ? new float[w.length] : null;
+
+        // One gradient buffer and loss slot per chunk, reduced in chunk order
+        int numChunks = executor.numChunks(numSamples);
+        double[][] partialGradients = new double[numChunks][w.length];
+        double[][] partialErrors = new double[numChunks][numOutputs];
+        double[][] partialTransposed = single ? new double[numChunks][w.length] : null;
+        double[] partialLoss = new double[numChunks];
+
+        ChunkedExecutor.ChunkBody gradientPass = single
+                ? (chunk, from, to) -> partialLoss[chunk] = accumulateGradient(xf, yf, wt, from, to,
+                        partialGradients[chunk], partialErrors[chunk], partialTransposed[chunk])
+                : (chunk, from, to) -> partialLoss[chunk] = accumulateGradient(x, y, from, to,
+                        partialGradients[chunk], partialErrors[chunk]);
+
+        runGradientDescent("gradient descent", numSamples, g -> {
+            if (single) {
+                toSinglePrecisionTransposed(w, wt, numOutputs);
+            }
+            executor.forEachChunk(numSamples, gradientPass);
+
+            java.util.Arrays.fill(g, 0.0);
+            double totalLoss = 0.0;
+            for (int c = 0; c < numChunks; c++) {
+                Matrix.axpy(1.0, partialGradients[c], 0, g, 0, g.length);
+                totalLoss += partialLoss[c];
             }
+            return totalLoss;
+        });
+    }
+
+    /**
+     * Train using mini-batch stochastic gradient descent over shuffled index permutations
+     */
+    private void trainMiniBatch(double[][] X, double[][] Y) {
+
+        int numSamples = X.length;
+        int numFeatures = X[0].length;
+        int numOutputs = Y[0].length;
+        boolean single = precision == Precision.FLOAT;
+
+        // Pack the data once into contiguous row-major buffers of the chosen precision
+        double[] x = single ? null : Matrix.fromArray(X).data();
+        double[] y = single ? null : Matrix.fromArray(Y).data();
+        float[] xf = single ? Matrix.toFloatArray(X) : null;
+        float[] yf = single ? Matrix.toFloatArray(Y) : null;
+
+        java.util.Random rand = new java.util.Random(42);
+        double[] w = initializeWeights(numFeatures, numOutputs, rand);
+        float[] wt = single ? new float[w.length] : null;
+
+        double[] g = new double[w.length];
+        double[] gt = single ? new double[w.length] : null;
+        double[] error = new double[numOutputs];
+        int[] order = new int[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            order[i] = i;
         }
 
-        // Gradient descent
-        for (int iter = 0; iter < maxIterations; iter++) {
-            // Compute gradients
-            double[][] gradients = new double[numFeatures + 1][numOutputs];
+        runMiniBatch("mini-batch gradient descent (batch size " + batchSize + ")", numSamples, updater -> {
+            shuffle(order, numSamples, rand);
 
             double totalLoss = 0.0;
-            for (int i = 0; i < numSamples; i++) {
-                // Forward pass
-                double[] prediction = predictSingle(X[i]);
+            for (int start = 0; start < numSamples; start += batchSize) {
+                int end = Math.min(start + batchSize, numSamples);
 
-                // Compute error
-                double[] error = new double[numOutputs];
-                for (int j = 0; j < numOutputs; j++) {
-                    error[j] = prediction[j] - Y[i][j];
-                    totalLoss += error[j] * error[j];
+                // Compute gradients over the batch
+                java.util.Arrays.fill(g, 0.0);
+                if (single) {
+                    toSinglePrecisionTransposed(w, wt, numOutputs);
+                    java.util.Arrays.fill(gt, 0.0);
+                    for (int b = start; b < end; b++) {
+                        totalLoss += accumulateRow(xf, yf, wt, order[b], gt, error);
+                    }
+                    transposeInto(gt, g, numOutputs);
+                } else {
+                    for (int b = start; b < end; b++) {
+                        totalLoss += accumulateRow(x, y, order[b], g, error);
+                    }
                 }
 
-                // Accumulate gradients
-                // Bias gradient
-                for (int j = 0; j < numOutputs; j++) {
-                    gradients[0][j] += error[j];
+                // Update weights
+                updater.update(w, g, end - start);
+            }
+            return totalLoss;
+        });
+    }
+
+    /**
+     * Full-batch gradient descent streaming the data source once per iteration
+     */
+    private void trainGradientDescent(RowSource data) {
+
+        long numSamples = data.numRows();
+        int numFeatures = data.numFeatures();
+        int numOutputs = data.numOutputs();
+        int blockRows = data.blockRows();
+        double[] x = new double[blockRows * numFeatures];
+        double[] y = new double[blockRows * numOutputs];
+
+        double[] w = initializeWeights(numFeatures, numOutputs, new java.util.Random(42));
+
+        // One gradient buffer and loss slot per chunk of a block, reduced in chunk order
+        int numChunks = executor.numChunks(blockRows);
+        double[][] partialGradients = new double[numChunks][w.length];
+        double[][] partialErrors = new double[numChunks][numOutputs];
+        double[] partialLoss = new double[numChunks];
+
+        ChunkedExecutor.ChunkBody gradientPass = (chunk, from, to) ->
+                partialLoss[chunk] = accumulateGradient(x, y, from, to, partialGradients[chunk], partialErrors[chunk]);
+
+        runGradientDescent("gradient descent", numSamples, g -> {
+            // Compute gradients block by block
+            java.util.Arrays.fill(g, 0.0);
+            double totalLoss = 0.0;
+            for (long first = 0; first < numSamples; ) {
+                int rows = data.read(first, blockRows, x, y);
+                if (rows <= 0) {
+                    throw new IllegalStateException("Row source ended at row " + first + " of " + numSamples);
                 }
+                executor.forEachChunk(rows, gradientPass);
+                for (int c = 0; c < executor.numChunks(rows); c++) {
+                    Matrix.axpy(1.0, partialGradients[c], 0, g, 0, g.length);
+                    totalLoss += partialLoss[c];
+                }
+                first += rows;
+            }
+            return totalLoss;
+        });
+    }
 
-                // Feature gradients
-                for (int f = 0; f < numFeatures; f++) {
-                    for (int j = 0; j < numOutputs; j++) {
-                        gradients[f + 1][j] += error[j] * X[i][f];
+    /**
+     * Mini-batch SGD streaming the data source once per epoch, shuffling within each block
+     */
+    private void trainMiniBatch(RowSource data) {
+
+        long numSamples = data.numRows();
+        int numFeatures = data.numFeatures();
+        int numOutputs = data.numOutputs();
+        int blockRows = data.blockRows();
+        double[] x = new double[blockRows * numFeatures];
+        double[] y = new double[blockRows * numOutputs];
+
+        java.util.Random rand = new java.util.Random(42);
+        double[] w = initializeWeights(numFeatures, numOutputs, rand);
+
+        double[] g = new double[w.length];
+        double[] error = new double[numOutputs];
+        int[] order = new int[blockRows];
+
+        runMiniBatch("mini-batch gradient descent (batch size " + batchSize + ")", numSamples, updater -> {
+            double totalLoss = 0.0;
+            for (long first = 0; first < numSamples; ) {
+                int rows = data.read(first, blockRows, x, y);
+                if (rows <= 0) {
+                    throw new IllegalStateException("Row source ended at row " + first + " of " + numSamples);
+                }
+
+                // Shuffle the visiting order within the block
+                for (int i = 0; i < rows; i++) {
+                    order[i] = i;
+                }
+                shuffle(order, rows, rand);
+
+                for (int start = 0; start < rows; start += batchSize) {
+                    int end = Math.min(start + batchSize, rows);
+
+                    // Compute gradients over the batch
+                    java.util.Arrays.fill(g, 0.0);
+                    for (int b = start; b < end; b++) {
+                        totalLoss += accumulateRow(x, y, order[b], g, error);
                     }
+
+                    // Update weights
+                    updater.update(w, g, end - start);
                 }
+                first += rows;
             }
+            return totalLoss;
+        });
+    }
 
-            // Update weights
-            for (int i = 0; i < weights.length; i++) {
-                for (int j = 0; j < weights[i].length; j++) {
-                    weights[i][j] -= learningRate * gradients[i][j] / numSamples;
+    /**
+     * Full-batch gradient descent over sparse rows
+     */
+    private void trainGradientDescent(CsrMatrix X, double[][] Y) {
+        int numSamples = X.numRows();
+        int numOutputs = Y[0].length;
+        double[] y = Matrix.fromArray(Y).data();
+
+        initializeWeights(X.numCols(), numOutputs, new java.util.Random(42));
+        double[] error = new double[numOutputs];
+
+        runGradientDescent("gradient descent (sparse)", numSamples, g -> {
+            // Compute gradients from the stored entries only
+            java.util.Arrays.fill(g, 0.0);
+            double totalLoss = 0.0;
+            for (int i = 0; i < numSamples; i++) {
+                totalLoss += accumulateRow(X, y, i, g, error);
+            }
+            return totalLoss;
+        });
+    }
+
+    /**
+     * Mini-batch SGD over shuffled sparse rows
+     */
+    private void trainMiniBatch(CsrMatrix X, double[][] Y) {
+        int numSamples = X.numRows();
+        int numOutputs = Y[0].length;
+        double[] y = Matrix.fromArray(Y).data();
+
+        java.util.Random rand = new java.util.Random(42);
+        double[] w = initializeWeights(X.numCols(), numOutputs, rand);
+        double[] g = new double[w.length];
+        double[] error = new double[numOutputs];
+        int[] order = new int[numSamples];
+        for (int i = 0; i < numSamples; i++) {
+            order[i] = i;
+        }
+
+        runMiniBatch("mini-batch gradient descent (sparse, batch size " + batchSize + ")", numSamples, updater -> {
+            shuffle(order, numSamples, rand);
+
+            double totalLoss = 0.0;
+            for (int start = 0; start < numSamples; start += batchSize) {
+                int end = Math.min(start + batchSize, numSamples);
+
+                // Compute gradients over the batch
+                java.util.Arrays.fill(g, 0.0);
+                for (int b = start; b < end; b++) {
+                    totalLoss += accumulateRow(X, y, order[b], g, error);
                 }
+
+                // Update weights
+                updater.update(w, g, end - start);
             }
+            return totalLoss;
+        });
+    }
 
-            // Print progress every 200 iterations
-            if (iter % 200 == 0 || iter == maxIterations - 1) {
-                double mse = totalLoss / (numSamples * numOutputs);
-                System.out.printf("Iteration %d: MSE = %.6f%n", iter, mse);
+    /**
+     * Fixed-step gradient descent on the initialized weights, one full pass per iteration
+     */
+    private void runGradientDescent(String algorithm, long numSamples, LossPass pass) {
+        double[] w = weights.data();
+        double[] g = new double[w.length];
+
+        ConvergenceMonitor monitor = startMonitor(new TrainingRun(algorithm,
+                "MSE", "Iteration", numSamples, maxIterations));
+        double[] bestWeights = monitor.usesValidation() ? new double[w.length] : null;
+        Optimizer.Updater updater = optimizer.start(w.length);
+        StopReason stop = StopReason.MAX_ITERATIONS;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            // Compute gradients
+            double totalLoss = pass.run(g);
+
+            // Update weights
+            updater.update(w, g, numSamples);
+
+            double gradientNorm = Math.sqrt(Matrix.dot(g, 0, g, 0, g.length)) / numSamples;
+            StopReason reason = completeIteration(monitor, iter, totalLoss, gradientNorm, numSamples, bestWeights);
+            if (reason != null) {
+                stop = reason;
+                break;
+            }
+        }
+        finishTraining(monitor, stop, bestWeights);
+    }
+
+    /**
+     * Mini-batch SGD on the initialized weights, one epoch per iteration
+     */
+    private void runMiniBatch(String algorithm, long numSamples, Epoch epoch) {
+        double[] w = weights.data();
+
+        ConvergenceMonitor monitor = startMonitor(new TrainingRun(algorithm,
+                "MSE", "Epoch", numSamples, maxIterations));
+        double[] bestWeights = monitor.usesValidation() ? new double[w.length] : null;
+        Optimizer.Updater updater = optimizer.start(w.length);
+        StopReason stop = StopReason.MAX_ITERATIONS;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            double totalLoss = epoch.run(updater);
+
+            // No full gradient in mini-batch mode: only loss, time and validation criteria apply
+            StopReason reason = completeIteration(monitor, iter, totalLoss, Double.NaN, numSamples, bestWeights);
+            if (reason != null) {
+                stop = reason;
+                break;
+            }
+        }
+        finishTraining(monitor, stop, bestWeights);
+    }
+
+    /**
+     * Check the stopping criteria after an iteration, keep the best validation
+     * weights and report progress
+     * @param totalLoss Sum of squared errors over the iteration
+     * @return Why training should stop now, or null to continue
+     */
+    private StopReason completeIteration(ConvergenceMonitor monitor, int iter, double totalLoss,
+                                         double gradientNorm, long numSamples, double[] bestWeights) {
+        double mse = totalLoss / ((double) numSamples * weights.cols());
+        StopReason reason = monitor.check(mse, gradientNorm, monitor.usesValidation() ? validationLoss() : Double.NaN);
+        if (monitor.isBestValidation()) {
+            System.arraycopy(weights.data(), 0, bestWeights, 0, bestWeights.length);
+        }
+        listener.iterationCompleted(iter, mse, gradientNorm, monitor.samplesPerSecond(numSamples), monitor.elapsedNanos());
+        return reason;
+    }
+
+    /**
+     * Fisher-Yates shuffle of order[0 .. n)
+     */
+    private static void shuffle(int[] order, int n, java.util.Random rand) {
+        for (int i = n - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    /**
+     * Announce an iterative training run and start monitoring it against the stopping criteria
+     */
+    private ConvergenceMonitor startMonitor(TrainingRun run) {
+        if (stoppingCriteria.usesValidation() && validationX == null) {
+            throw new IllegalStateException("Validation patience needs validation data (setValidationData)");
+        }
+        listener.trainingStarted(run);
+        return stoppingCriteria.start();
+    }
+
+    /**
+     * Record the training summary, restore the best validation weights if
+     * validation patience ended the run, and report the end of the run
+     */
+    private void finishTraining(ConvergenceMonitor monitor, StopReason stop, double[] bestWeights) {
+        summary = monitor.finish(stop);
+        if (stop == StopReason.VALIDATION_PATIENCE) {
+            System.arraycopy(bestWeights, 0, weights.data(), 0, bestWeights.length);
+        }
+        listener.trainingFinished(summary);
+    }
+
+    /**
+     * Report a closed-form phase that started at phaseStart
+     * @return Start time of the next phase
+     */
+    private long phaseCompleted(String phase, long phaseStart) {
+        long now = System.nanoTime();
+        listener.phaseCompleted(phase, now - phaseStart);
+        return now;
+    }
+
+    private void finishClosedForm(double mse, long startTime) {
+        summary = TrainingSummary.closedForm(mse, (System.nanoTime() - startTime) / 1_000_000);
+        listener.trainingFinished(summary);
+    }
+
+    /**
+     * MSE of the current weights on the validation set
+     */
+    private double validationLoss() {
+        int numOutputs = weights.cols();
+        double[] prediction = new double[numOutputs];
+        double totalLoss = 0.0;
+        for (int i = 0; i < validationX.length; i++) {
+            predictRow(validationX[i], 0, prediction, 0);
+            for (int j = 0; j < numOutputs; j++) {
+                double error = prediction[j] - validationY[i][j];
+                totalLoss += error * error;
+            }
+        }
+        return totalLoss / (validationX.length * numOutputs);
+    }
+
+    /**
+     * Allocate the weight matrix and initialize it randomly (small values)
+     * @return Backing buffer of the new weights
+     */
+    private double[] initializeWeights(int numFeatures, int numOutputs, java.util.Random rand) {
+        weights = new Matrix(numFeatures + 1, numOutputs);
+        double[] w = weights.data();
+        for (int i = 0; i < w.length; i++) {
+            w[i] = (rand.nextDouble() - 0.5) * 0.01;
+        }
+        return w;
+    }
+
+    /**
+     * Sum of squared errors and MSE gradient (not yet divided by N) over the rows [from, to)
+     * @param x Packed features [numSamples * numFeatures]
+     * @param y Packed targets [numSamples * numOutputs]
+     * @param g Gradient buffer [numFeatures + 1][numOutputs], overwritten
+     * @param error Scratch buffer [numOutputs]
+     * @return Sum of squared errors over the rows
+     */
+    private double accumulateGradient(double[] x, double[] y, int from, int to, double[] g, double[] error) {
+        java.util.Arrays.fill(g, 0.0);
+
+        double totalLoss = 0.0;
+        for (int i = from; i < to; i++) {
+            totalLoss += accumulateRow(x, y, i, g, error);
+        }
+        return totalLoss;
+    }
+
+    /**
+     * Add one row's contribution to the MSE gradient (not yet divided by N)
+     * @param row Index of the row in the packed buffers
+     * @param g Gradient buffer [numFeatures + 1][numOutputs], accumulated into
+     * @param error Scratch buffer [numOutputs]
+     * @return Squared error of the row
+     */
+    private double accumulateRow(double[] x, double[] y, int row, double[] g, double[] error) {
+        int numFeatures = weights.rows() - 1;
+        int numOutputs = weights.cols();
+        int xRow = row * numFeatures;
+        int yRow = row * numOutputs;
+
+        // Forward pass
+        predictRow(x, xRow, error, 0);
+
+        // Compute error
+        double loss = 0.0;
+        for (int j = 0; j < numOutputs; j++) {
+            error[j] -= y[yRow + j];
+            loss += error[j] * error[j];
+        }
+
+        // Accumulate gradients
+        // Bias gradient
+        Matrix.axpy(1.0, error, 0, g, 0, numOutputs);
+
+        // Feature gradients
+        for (int f = 0; f < numFeatures; f++) {
+            Matrix.axpy(x[xRow + f], error, 0, g, (f + 1) * numOutputs, numOutputs);
+        }
+        return loss;
+    }
+
+    /**
+     * Add one sparse row's contribution to the MSE gradient, touching only the
+     * weight rows of its stored entries
+     * @param row Index of the row in X and in the packed targets
+     * @param g Gradient buffer [numFeatures + 1][numOutputs], accumulated into
+     * @param error Scratch buffer [numOutputs]
+     * @return Squared error of the row
+     */
+    private double accumulateRow(CsrMatrix X, double[] y, int row, double[] g, double[] error) {
+        int numOutputs = weights.cols();
+        int yRow = row * numOutputs;
+        int[] columns = X.columnIndices();
+        double[] values = X.values();
+
+        // Forward pass
+        predictRow(X, row, error, 0);
+
+        // Compute error
+        double loss = 0.0;
+        for (int j = 0; j < numOutputs; j++) {
+            error[j] -= y[yRow + j];
+            loss += error[j] * error[j];
+        }
+
+        // Accumulate gradients: bias, then the rows of the non-zero features
+        Matrix.axpy(1.0, error, 0, g, 0, numOutputs);
+        for (int k = X.rowStart(row); k < X.rowEnd(row); k++) {
+            Matrix.axpy(values[k], error, 0, g, (columns[k] + 1) * numOutputs, numOutputs);
+        }
+        return loss;
+    }
+
+    /**
+     * Single-precision variant of {@link #accumulateGradient(double[], double[], int, int, double[], double[])}
+     *
+     * Works on transposed weights and gradients [numOutputs][numFeatures + 1], so
+     * every inner loop runs over the features of one row: a float dot product in
+     * the forward pass and a widening axpy into the double gradient.
+     * @param wt Transposed single-precision weights
+     * @param g Gradient buffer [numFeatures + 1][numOutputs], overwritten
+     * @param gt Scratch buffer for the transposed gradient
+     */
+    private double accumulateGradient(float[] x, float[] y, float[] wt, int from, int to,
+                                      double[] g, double[] error, double[] gt) {
+        java.util.Arrays.fill(gt, 0.0);
+
+        double totalLoss = 0.0;
+        for (int i = from; i < to; i++) {
+            totalLoss += accumulateRow(x, y, wt, i, gt, error);
+        }
+        transposeInto(gt, g, weights.cols());
+        return totalLoss;
+    }
+
+    /**
+     * Add one single-precision row's contribution to the transposed MSE gradient
+     * @param wt Transposed single-precision weights [numOutputs][numFeatures + 1]
+     * @param gt Transposed gradient [numOutputs][numFeatures + 1], accumulated into
+     * @param error Scratch buffer [numOutputs]
+     * @return Squared error of the row
+     */
+    private double accumulateRow(float[] x, float[] y, float[] wt, int row, double[] gt, double[] error) {
+        int numFeatures = weights.rows() - 1;
+        int numOutputs = weights.cols();
+        int xRow = row * numFeatures;
+        int yRow = row * numOutputs;
+        int p = numFeatures + 1;
+
+        // Forward pass and error
+        double loss = 0.0;
+        for (int j = 0; j < numOutputs; j++) {
+            float prediction = wt[j * p] + Matrix.dot(wt, j * p + 1, x, xRow, numFeatures);
+            error[j] = (double) prediction - y[yRow + j];
+            loss += error[j] * error[j];
+        }
+
+        // Accumulate gradients
+        for (int j = 0; j < numOutputs; j++) {
+            gt[j * p] += error[j];
+            Matrix.axpy(error[j], x, xRow, gt, j * p + 1, numFeatures);
+        }
+        return loss;
+    }
+
+    /**
+     * Round the weights [numFeatures + 1][numOutputs] into a transposed
+     * single-precision copy [numOutputs][numFeatures + 1]
+     */
+    private static void toSinglePrecisionTransposed(double[] w, float[] wt, int numOutputs) {
+        int p = w.length / numOutputs;
+        for (int i = 0; i < p; i++) {
+            for (int j = 0; j < numOutputs; j++) {
+                wt[j * p + i] = (float) w[i * numOutputs + j];
+            }
+        }
+    }
+
+    /**
+     * g[i][j] = gt[j][i] for a gradient of numOutputs columns
+     */
+    private static void transposeInto(double[] gt, double[] g, int numOutputs) {
+        int p = g.length / numOutputs;
+        for (int i = 0; i < p; i++) {
+            for (int j = 0; j < numOutputs; j++) {
+                g[i * numOutputs + j] = gt[j * p + i];
             }
         }
     }
@@ -179,7 +896,124 @@ public class LinearRegression {
         if (!trained) {
             throw new IllegalStateException("Model must be trained before prediction");
         }
-        return predictSingle(x);
+        double[] output = new double[weights.cols()];
+        predictRow(x, 0, output, 0);
+        return output;
+    }
+
+    /**
+     * Predict output for a single input into a caller-owned buffer (no allocation)
+     * @param x Input features [numFeatures]
+     * @param out Receives the predicted output [numOutputs]
+     */
+    public void predictInto(double[] x, double[] out) {
+        predictInto(x, 0, out, 0);
+    }
+
+    /**
+     * Predict output for one row of a flat buffer into another flat buffer (no allocation)
+     * @param x Buffer holding the input row
+     * @param xOff Index of the first feature of the row in x
+     * @param out Buffer receiving the prediction
+     * @param outOff Index where the numOutputs predicted values are written
+     */
+    public void predictInto(double[] x, int xOff, double[] out, int outOff) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        predictRow(x, xOff, out, outOff);
+    }
+
+    /**
+     * Predict outputs for a block of rows
+     * @param features Row-major features [numRows * numFeatures]
+     * @param numRows Number of rows in the block
+     * @return Row-major predictions [numRows * numOutputs]
+     */
+    public double[] predictBatch(double[] features, int numRows) {
+        double[] out = new double[numRows * weights.cols()];
+        predictBatch(features, numRows, out);
+        return out;
+    }
+
+    /**
+     * Predict outputs for a block of rows into a caller-owned buffer
+     *
+     * Computed as one matrix product OUT = 1·w₀ + X·W against a transposed copy
+     * of W (four rows at a time) instead of a per-row loop, with row chunks
+     * spread over the model's executor.
+     * @param features Row-major features [numRows * numFeatures]
+     * @param numRows Number of rows in the block
+     * @param out Receives row-major predictions [numRows * numOutputs]
+     */
+    public void predictBatch(double[] features, int numRows, double[] out) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        int numFeatures = weights.rows() - 1;
+        int numOutputs = weights.cols();
+        Matrix X = Matrix.wrap(features, numRows, numFeatures);
+        Matrix OUT = Matrix.wrap(out, numRows, numOutputs);
+        Matrix Wt = weights.rowRange(1, numFeatures + 1).transpose();  // one contiguous row per output
+        double[] w = weights.data();
+
+        executor.forEachChunk(numRows, (chunk, from, to) -> {
+            // Initialize with bias
+            for (int i = from; i < to; i++) {
+                System.arraycopy(w, 0, out, i * numOutputs, numOutputs);
+            }
+            // Add weighted features
+            Matrix.multiplyTransposedAdd(X.rowRange(from, to), Wt, OUT.rowRange(from, to));
+        });
+    }
+
+    /**
+     * Predict the outputs of one sparse row into a flat buffer (no allocation)
+     * @param X Sparse features
+     * @param row Index of the row in X
+     * @param out Buffer receiving the prediction
+     * @param outOff Index where the numOutputs predicted values are written
+     */
+    public void predictInto(CsrMatrix X, int row, double[] out, int outOff) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        predictRow(X, row, out, outOff);
+    }
+
+    /**
+     * Predict the outputs of a single sparse row given as index / value pairs
+     * (no allocation), e.g. from a {@link ch.innuvation.data.FeatureHasher}
+     * @param indices Feature indices of the row's entries
+     * @param values Values of the row's entries
+     * @param count Number of entries
+     * @param out Receives the prediction [numOutputs]
+     */
+    public void predictInto(int[] indices, double[] values, int count, double[] out) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        predictRow(indices, values, 0, count, out, 0);
+    }
+
+    /**
+     * Predict outputs for all rows of a sparse matrix, in O(nnz · numOutputs)
+     * with row chunks spread over the model's executor
+     * @param X Sparse features
+     * @return Row-major predictions [numRows * numOutputs]
+     */
+    public double[] predictBatch(CsrMatrix X) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        int numOutputs = weights.cols();
+        double[] out = new double[X.numRows() * numOutputs];
+        executor.forEachChunk(X.numRows(), (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                predictRow(X, i, out, i * numOutputs);
+            }
+        });
+        return out;
     }
 
     /**
@@ -189,141 +1023,181 @@ public class LinearRegression {
      * Multiple outputs: ŷⱼ = w₀ⱼ + w₁ⱼx₁ + w₂ⱼx₂ + ... + wₙⱼxₙ
      * or in vector form: ŷ = w₀ + W^T x
      *
-     * weight matrix structure:
+     * weight matrix structure (row-major, one row per input plus the bias row):
      * ```
-     * weights[0]   = [w₀₀, w₀₁, w₀₂, ...]  // biases
-     * weights[1]   = [w₁₀, w₁₁, w₁₂, ...]  // weights for x₁
-     * weights[2]   = [w₂₀, w₂₁, w₂₂, ...]  // weights for x₂
+     * row 0   = [w₀₀, w₀₁, w₀₂, ...]  // biases
+     * row 1   = [w₁₀, w₁₁, w₁₂, ...]  // weights for x₁
+     * row 2   = [w₂₀, w₂₁, w₂₂, ...]  // weights for x₂
+     *
+     * output[j] = w[0][j] + Σᵢ (w[i+1][j] * x[i])
      *
-     * output[j] = weights[0][j] + Σᵢ (weights[i+1][j] * x[i])
+     * @param x Buffer holding the input row
+     * @param xOff Index of the first feature in x
+     * @param output Buffer receiving the prediction
+     * @param outOff Index of the first output in output
      */
-    private double[] predictSingle(double[] x) {
-        int numOutputs = weights[0].length;
-        double[] output = new double[numOutputs];
+    private void predictRow(double[] x, int xOff, double[] output, int outOff) {
+        int numFeatures = weights.rows() - 1;
+        int numOutputs = weights.cols();
+        double[] w = weights.data();
 
         // Initialize with bias
-        for (int j = 0; j < numOutputs; j++) {
-            output[j] = weights[0][j];
-        }
+        System.arraycopy(w, 0, output, outOff, numOutputs);
 
         // Add weighted features
-        for (int i = 0; i < x.length; i++) {
-            for (int j = 0; j < numOutputs; j++) {
-                output[j] += weights[i + 1][j] * x[i];
-            }
+        for (int i = 0; i < numFeatures; i++) {
+            Matrix.axpy(x[xOff + i], w, (i + 1) * numOutputs, output, outOff, numOutputs);
         }
-
-        return output;
     }
 
-    // ==================== Matrix Operations ====================
+    private void predictRow(CsrMatrix X, int row, double[] output, int outOff) {
+        predictRow(X.columnIndices(), X.values(), X.rowStart(row), X.rowEnd(row), output, outOff);
+    }
 
     /**
-     * Transpose a matrix
+     * Sparse variant of {@link #predictRow(double[], int, double[], int)} over the
+     * entries [from, to) of parallel column / value buffers:
+     * output[j] = w[0][j] + Σ over the entries (w[col+1][j] * value)
      */
-    private double[][] transpose(double[][] A) {
-        int rows = A.length;
-        int cols = A[0].length;
-        double[][] result = new double[cols][rows];
+    private void predictRow(int[] columns, double[] values, int from, int to, double[] output, int outOff) {
+        int numOutputs = weights.cols();
+        double[] w = weights.data();
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[j][i] = A[i][j];
-            }
+        // Initialize with bias
+        System.arraycopy(w, 0, output, outOff, numOutputs);
+
+        // Add weighted non-zero features
+        for (int k = from; k < to; k++) {
+            Matrix.axpy(values[k], w, (columns[k] + 1) * numOutputs, output, outOff, numOutputs);
         }
-        return result;
     }
 
     /**
-     * Multiply two matrices: C = A * B
+     * Use an externally maintained weight matrix (shared, not copied), e.g. by
+     * {@link RecursiveLeastSquares}
+     * @param weights [numFeatures + 1][numOutputs], bias row first
      */
-    private double[][] matrixMultiply(double[][] A, double[][] B) {
-        int rowsA = A.length;
-        int colsA = A[0].length;
-        int colsB = B[0].length;
-
-        double[][] result = new double[rowsA][colsB];
+    void setWeights(Matrix weights) {
+        this.weights = weights;
+        this.trained = true;
+    }
 
-        for (int i = 0; i < rowsA; i++) {
-            for (int j = 0; j < colsB; j++) {
-                for (int k = 0; k < colsA; k++) {
-                    result[i][j] += A[i][k] * B[k][j];
-                }
-            }
-        }
-        return result;
+    /**
+     * Spread the per-iteration gradient pass of gradient descent (and predictBatch) over several threads
+     *
+     * Rows are split into fixed chunks whose partial gradients are summed in chunk
+     * order, so the learned weights do not depend on the number of threads.
+     * @param executor e.g. {@link ChunkedExecutor#common()} or a dedicated ForkJoinPool
+     */
+    public void setExecutor(ChunkedExecutor executor) {
+        this.executor = executor;
     }
 
     /**
-     * Invert a matrix using Gauss-Jordan elimination
-     * Note: This is numerically stable for small matrices but may fail for ill-conditioned matrices
+     * Choose how gradient-descent and mini-batch training turns gradients into weight updates
+     * @param optimizer e.g. {@link Optimizer#adam(double)} (default: plain
+     *                  {@link Optimizer#sgd(double)} with the constructor's learning rate)
      */
-    private double[][] invert(double[][] A) {
-        int n = A.length;
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+    }
 
-        // Create augmented matrix [A | I]
-        double[][] augmented = new double[n][2 * n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                augmented[i][j] = A[i][j];
-            }
-            augmented[i][i + n] = 1.0;
-        }
+    /**
+     * Store in-heap training data in single or double precision for gradient
+     * descent and mini-batch SGD
+     *
+     * Applies to {@link #train(double[][], double[][])}; closed-form training and
+     * {@link RowSource} data, which keeps its own storage format, always use double.
+     * @param precision Precision of features, targets and the forward pass (default: double)
+     */
+    public void setPrecision(Precision precision) {
+        this.precision = precision;
+    }
 
-        // Forward elimination
-        for (int i = 0; i < n; i++) {
-            // Find pivot
-            int maxRow = i;
-            for (int k = i + 1; k < n; k++) {
-                if (Math.abs(augmented[k][i]) > Math.abs(augmented[maxRow][i])) {
-                    maxRow = k;
-                }
-            }
+    /**
+     * End gradient-descent training early, e.g. once the loss has flattened
+     * @param criteria Stopping criteria (default: run all iterations)
+     */
+    public void setStoppingCriteria(StoppingCriteria criteria) {
+        this.stoppingCriteria = criteria;
+    }
 
-            // Swap rows
-            double[] temp = augmented[i];
-            augmented[i] = augmented[maxRow];
-            augmented[maxRow] = temp;
+    /**
+     * Held-out rows monitored by {@link StoppingCriteria#validationPatience(int)}
+     * @param X Validation features [numSamples][numFeatures]
+     * @param Y Validation targets [numSamples][numOutputs]
+     */
+    public void setValidationData(double[][] X, double[][] Y) {
+        if (X.length == 0 || X.length != Y.length) {
+            throw new IllegalArgumentException("Validation X and Y must be non-empty and have same number of samples");
+        }
+        this.validationX = X;
+        this.validationY = Y;
+    }
 
-            // Check for singular matrix
-            if (Math.abs(augmented[i][i]) < 1e-10) {
-                throw new RuntimeException("Matrix is singular or nearly singular");
-            }
+    /**
+     * Receive progress, loss and timing events during training
+     * @param listener e.g. a {@link ch.innuvation.training.ConsoleTrainingListener}
+     *                 (default: {@link TrainingListener#SILENT}, no output)
+     */
+    public void setTrainingListener(TrainingListener listener) {
+        this.listener = listener;
+    }
 
-            // Make diagonal 1
-            double pivot = augmented[i][i];
-            for (int j = 0; j < 2 * n; j++) {
-                augmented[i][j] /= pivot;
-            }
+    /**
+     * Why and when the last training run stopped
+     * @return Summary of the last training (reason CLOSED_FORM for the Normal
+     *         Equation), or null if none ran
+     */
+    public TrainingSummary getTrainingSummary() {
+        return summary;
+    }
 
-            // Eliminate column
-            for (int k = 0; k < n; k++) {
-                if (k != i) {
-                    double factor = augmented[k][i];
-                    for (int j = 0; j < 2 * n; j++) {
-                        augmented[k][j] -= factor * augmented[i][j];
-                    }
-                }
-            }
+    /**
+     * Freeze the current weights into a {@link Predictor} that computes the same
+     * outputs as {@link #predictInto(double[], int, double[], int)}, with the
+     * weights compiled into the code for small models (see {@link PredictorCompiler})
+     */
+    public Predictor compile() {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before compiling");
         }
+        Matrix packed = weights.copy();
+        return PredictorCompiler.compile(packed.data(), packed.rows(), packed.cols(), false);
+    }
 
-        // Extract inverse from augmented matrix
-        double[][] inverse = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                inverse[i][j] = augmented[i][j + n];
-            }
+    /**
+     * Save the learned weights to a binary {@link ModelFile}
+     */
+    public void save(Path path) throws IOException {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before saving");
         }
+        Matrix packed = weights.copy();
+        ModelFile.write(path, ModelFile.LINEAR_REGRESSION, packed.data(), packed.rows(), packed.cols());
+    }
 
-        return inverse;
+    /**
+     * Load a model saved with {@link #save(Path)}, ready for prediction
+     *
+     * The loaded model is a closed-form model; training it again replaces the weights.
+     */
+    public static LinearRegression load(Path path) throws IOException {
+        ModelFile file = ModelFile.read(path);
+        if (file.modelType() != ModelFile.LINEAR_REGRESSION) {
+            throw new IOException("Not a linear regression model (type " + file.modelType() + ")");
+        }
+        LinearRegression model = new LinearRegression(new CholeskySolver());
+        model.setWeights(Matrix.wrap(file.weights(), file.rows(), file.cols()));
+        return model;
     }
 
     /**
      * Get the learned weights (for inspection/debugging)
-     * @return weights[numFeatures + 1][numOutputs]
+     * @return copy of weights[numFeatures + 1][numOutputs]
      */
     public double[][] getWeights() {
-        return weights;
+        return weights == null ? null : weights.toArray();
     }
 
     /**
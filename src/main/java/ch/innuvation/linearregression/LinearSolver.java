@@ -0,0 +1,27 @@
+package ch.innuvation.linearregression;
+
+/**
+ * Strategy for solving the linear system behind the closed-form solution
+ *
+ * Implementations either work on the Normal Equation (X^T X) β = X^T y, where
+ * A is the symmetric Gram matrix, or directly on the least-squares problem
+ * min ||X β - y|| when {@link #usesNormalEquations()} returns false.
+ */
+public interface LinearSolver {
+
+    /**
+     * Solve A · W = B for W (in the least-squares sense for a design matrix)
+     * @param A Coefficient matrix: X^T X, or the design matrix X itself
+     * @param B Right-hand sides, one per column: X^T Y, or Y itself
+     * @return W [A.cols()][B.cols()]
+     */
+    Matrix solve(Matrix A, Matrix B);
+
+    /**
+     * Whether {@link #solve} expects the Normal Equation (A = X^T X, B = X^T Y)
+     * rather than the design matrix and targets (A = X, B = Y)
+     */
+    default boolean usesNormalEquations() {
+        return true;
+    }
+}
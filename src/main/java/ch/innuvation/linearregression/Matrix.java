@@ -0,0 +1,301 @@
+package ch.innuvation.linearregression;
+
+import ch.innuvation.kernel.Kernels;
+
+/**
+ * Dense matrix backed by a single contiguous row-major double[]
+ *
+ * Element (i, j) lives at data[offset + i * stride + j], so a matrix can also be
+ * a view into a larger buffer (a block of rows, or a sub-block of columns)
+ * without copying. Keeping everything in one array avoids the per-row pointer
+ * chase of double[][] and lets the inner loops stream through memory.
+ *
+ * The inner loops themselves run on the {@link Kernels} selected for this JVM
+ * (scalar, or SIMD through the JDK Vector API).
+ */
+public final class Matrix {
+    private static final int TILE = 128;
+    private static final Kernels KERNELS = Kernels.ACTIVE;
+
+    private final double[] data;
+    private final int rows;
+    private final int cols;
+    private final int offset;
+    private final int stride;
+
+    /**
+     * Create a zero-filled matrix
+     * @param rows Number of rows
+     * @param cols Number of columns
+     */
+    public Matrix(int rows, int cols) {
+        this(new double[rows * cols], 0, rows, cols, cols);
+    }
+
+    /**
+     * Create a view over an existing buffer (no copy)
+     * @param data Backing buffer
+     * @param offset Index of element (0, 0)
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param stride Distance between the starts of two consecutive rows
+     */
+    public Matrix(double[] data, int offset, int rows, int cols, int stride) {
+        if (rows < 0 || cols < 0 || offset < 0 || stride < cols) {
+            throw new IllegalArgumentException("Invalid matrix shape");
+        }
+        if (rows > 0 && offset + (long) (rows - 1) * stride + cols > data.length) {
+            throw new IllegalArgumentException("Matrix view exceeds backing buffer");
+        }
+        this.data = data;
+        this.rows = rows;
+        this.cols = cols;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    /**
+     * Wrap a densely packed row-major buffer (no copy)
+     */
+    public static Matrix wrap(double[] data, int rows, int cols) {
+        return new Matrix(data, 0, rows, cols, cols);
+    }
+
+    /**
+     * Copy a jagged array into a new contiguous matrix
+     */
+    public static Matrix fromArray(double[][] A) {
+        int rows = A.length;
+        int cols = rows == 0 ? 0 : A[0].length;
+        Matrix result = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(A[i], 0, result.data, i * cols, cols);
+        }
+        return result;
+    }
+
+    /**
+     * Copy a jagged array into a packed row-major single-precision buffer
+     */
+    public static float[] toFloatArray(double[][] A) {
+        int cols = A.length == 0 ? 0 : A[0].length;
+        float[] result = new float[A.length * cols];
+        for (int i = 0; i < A.length; i++) {
+            for (int j = 0; j < cols; j++) {
+                result[i * cols + j] = (float) A[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copy this matrix into a new jagged array
+     */
+    public double[][] toArray() {
+        double[][] result = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, result[i], 0, cols);
+        }
+        return result;
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int offset() { return offset; }
+    public int stride() { return stride; }
+
+    /**
+     * Backing buffer (shared, not a copy); use {@link #index(int, int)} to address it
+     */
+    public double[] data() { return data; }
+
+    /**
+     * Position of element (i, j) in the backing buffer
+     */
+    public int index(int i, int j) {
+        return offset + i * stride + j;
+    }
+
+    public double get(int i, int j) {
+        return data[offset + i * stride + j];
+    }
+
+    public void set(int i, int j, double value) {
+        data[offset + i * stride + j] = value;
+    }
+
+    public void add(int i, int j, double value) {
+        data[offset + i * stride + j] += value;
+    }
+
+    /**
+     * View of the rows [from, to) sharing the same buffer
+     */
+    public Matrix rowRange(int from, int to) {
+        return new Matrix(data, offset + from * stride, to - from, cols, stride);
+    }
+
+    /**
+     * View of the block [rowFrom, rowTo) x [colFrom, colTo) sharing the same buffer
+     */
+    public Matrix view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        return new Matrix(data, offset + rowFrom * stride + colFrom, rowTo - rowFrom, colTo - colFrom, stride);
+    }
+
+    /**
+     * Densely packed copy of this matrix
+     */
+    public Matrix copy() {
+        Matrix result = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data, offset + i * stride, result.data, i * cols, cols);
+        }
+        return result;
+    }
+
+    public void fill(double value) {
+        for (int i = 0; i < rows; i++) {
+            int row = offset + i * stride;
+            java.util.Arrays.fill(data, row, row + cols, value);
+        }
+    }
+
+    // ==================== Kernels ====================
+
+    /**
+     * Dot product of n elements: Σ a[aOff + k] * b[bOff + k]
+     */
+    public static double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        return KERNELS.dot(a, aOff, b, bOff, n);
+    }
+
+    /**
+     * y[yOff + k] += alpha * x[xOff + k] for n elements
+     */
+    public static void axpy(double alpha, double[] x, int xOff, double[] y, int yOff, int n) {
+        KERNELS.axpy(alpha, x, xOff, y, yOff, n);
+    }
+
+    /**
+     * Dot product of n single-precision elements
+     */
+    public static float dot(float[] a, int aOff, float[] b, int bOff, int n) {
+        return KERNELS.dot(a, aOff, b, bOff, n);
+    }
+
+    /**
+     * y[yOff + k] += alpha * x[xOff + k] for n elements, widening float x into double y
+     */
+    public static void axpy(double alpha, float[] x, int xOff, double[] y, int yOff, int n) {
+        KERNELS.axpy(alpha, x, xOff, y, yOff, n);
+    }
+
+    /**
+     * C = A * B
+     */
+    public Matrix multiply(Matrix B) {
+        Matrix C = new Matrix(rows, B.cols);
+        multiply(this, B, C);
+        return C;
+    }
+
+    /**
+     * C = A * B into a caller-provided matrix (overwritten)
+     */
+    public static void multiply(Matrix A, Matrix B, Matrix C) {
+        C.fill(0.0);
+        multiplyAdd(A, B, C);
+    }
+
+    /**
+     * C += A * B
+     *
+     * Uses i-k-j loop order so the innermost loop walks rows of B and C
+     * contiguously instead of striding down columns of B, and tiles the rows
+     * of A and B so a block of B is reused from cache by a block of rows of A.
+     */
+    public static void multiplyAdd(Matrix A, Matrix B, Matrix C) {
+        if (A.cols != B.rows || C.rows != A.rows || C.cols != B.cols) {
+            throw new IllegalArgumentException("Matrix dimensions do not match");
+        }
+        int n = B.cols;
+        for (int k0 = 0; k0 < A.cols; k0 += TILE) {
+            int k1 = Math.min(k0 + TILE, A.cols);
+            for (int i0 = 0; i0 < A.rows; i0 += TILE) {
+                int i1 = Math.min(i0 + TILE, A.rows);
+                for (int i = i0; i < i1; i++) {
+                    int aRow = A.index(i, 0);
+                    int cRow = C.index(i, 0);
+                    for (int k = k0; k < k1; k++) {
+                        double a = A.data[aRow + k];
+                        if (a != 0.0) {
+                            axpy(a, B.data, B.index(k, 0), C.data, cRow, n);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * C += A * B^T, given B^T packed as Bt (one row per column of C)
+     *
+     * Every element of C is a dot product of two contiguous rows, which suits
+     * a tall A with few output columns (e.g. scoring many rows against a small
+     * weight matrix).
+     */
+    public static void multiplyTransposedAdd(Matrix A, Matrix Bt, Matrix C) {
+        if (A.cols != Bt.cols || C.rows != A.rows || C.cols != Bt.rows) {
+            throw new IllegalArgumentException("Matrix dimensions do not match");
+        }
+        KERNELS.gemmNt(A.data, A.offset, A.stride, Bt.data, Bt.offset, Bt.stride,
+                       C.data, C.offset, C.stride, A.rows, Bt.rows, A.cols);
+    }
+
+    /**
+     * Densely packed transpose of this matrix
+     */
+    public Matrix transpose() {
+        Matrix result = new Matrix(cols, rows);
+        for (int i = 0; i < rows; i++) {
+            int row = index(i, 0);
+            for (int j = 0; j < cols; j++) {
+                result.data[j * rows + i] = data[row + j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * C = A^T * B without materializing A^T
+     */
+    public Matrix transposeMultiply(Matrix B) {
+        Matrix C = new Matrix(cols, B.cols);
+        transposeMultiply(this, B, C);
+        return C;
+    }
+
+    /**
+     * C = A^T * B into a caller-provided matrix (overwritten)
+     *
+     * Walks A and B row by row and accumulates the outer product of each pair of
+     * rows into C, so neither input is ever read against its layout.
+     */
+    public static void transposeMultiply(Matrix A, Matrix B, Matrix C) {
+        if (A.rows != B.rows || C.rows != A.cols || C.cols != B.cols) {
+            throw new IllegalArgumentException("Matrix dimensions do not match");
+        }
+        int n = B.cols;
+        C.fill(0.0);
+        for (int r = 0; r < A.rows; r++) {
+            int aRow = A.index(r, 0);
+            int bRow = B.index(r, 0);
+            for (int i = 0; i < A.cols; i++) {
+                double a = A.data[aRow + i];
+                if (a != 0.0) {
+                    axpy(a, B.data, bRow, C.data, C.index(i, 0), n);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ch.innuvation.linearregression;
+
+/**
+ * Solves the least-squares problem min ||X β - Y|| with a Householder QR of X
+ *
+ * Works on the design matrix itself instead of X^T X, so the condition number
+ * is not squared. This is the stable choice for ill-conditioned data, at the
+ * price of holding a copy of the N×(d+1) design matrix.
+ */
+public class QrSolver implements LinearSolver {
+    private static final double TOLERANCE = 1e-10;
+
+    @Override
+    public Matrix solve(Matrix A, Matrix B) {
+        int m = A.rows();
+        int n = A.cols();
+        if (B.rows() != m) {
+            throw new IllegalArgumentException("Matrix dimensions do not match");
+        }
+        if (m < n) {
+            throw new IllegalArgumentException("QR least squares needs at least as many samples as weights");
+        }
+
+        Matrix R = A.copy();   // reduced in place to R (upper triangle)
+        Matrix QtB = B.copy(); // reduced in place to Q^T B
+        double[] r = R.data();
+        double[] qtb = QtB.data();
+        int k = QtB.cols();
+        double[] v = new double[m];
+        double[] dots = new double[Math.max(n, k)];
+
+        double scale = 0.0;
+        for (int j = 0; j < n; j++) {
+            double norm = 0.0;
+            for (int i = 0; i < m; i++) {
+                norm += r[i * n + j] * r[i * n + j];
+            }
+            scale = Math.max(scale, Math.sqrt(norm));
+        }
+
+        for (int j = 0; j < n; j++) {
+            // Householder vector for column j below the diagonal
+            double norm = 0.0;
+            for (int i = j; i < m; i++) {
+                v[i] = r[i * n + j];
+                norm += v[i] * v[i];
+            }
+            norm = Math.sqrt(norm);
+            if (norm <= TOLERANCE * Math.max(scale, 1.0)) {
+                throw new RuntimeException("Matrix is singular or nearly singular");
+            }
+            double alpha = v[j] > 0 ? -norm : norm;
+            v[j] -= alpha;
+            double vNorm2 = 0.0;
+            for (int i = j; i < m; i++) {
+                vNorm2 += v[i] * v[i];
+            }
+            double beta = 2.0 / vNorm2;
+
+            // Apply H = I - beta v v^T to the remaining columns of R and to Q^T B,
+            // row by row so every access stays along the row-major layout
+            reflect(v, beta, r, n, j, n, j, m, dots);
+            reflect(v, beta, qtb, k, 0, k, j, m, dots);
+        }
+
+        // Back substitution: R W = Q^T B (top n rows)
+        Matrix W = new Matrix(n, k);
+        double[] w = W.data();
+        for (int i = n - 1; i >= 0; i--) {
+            System.arraycopy(qtb, i * k, w, i * k, k);
+            for (int p = i + 1; p < n; p++) {
+                Matrix.axpy(-r[i * n + p], w, p * k, w, i * k, k);
+            }
+            double inv = 1.0 / r[i * n + i];
+            for (int c = 0; c < k; c++) {
+                w[i * k + c] *= inv;
+            }
+        }
+        return W;
+    }
+
+    /**
+     * M[rowFrom:rowTo, colFrom:colTo] -= beta v (v^T M[...]) for a dense row-major M of width cols
+     */
+    private static void reflect(double[] v, double beta, double[] M, int cols,
+                                int colFrom, int colTo, int rowFrom, int rowTo, double[] dots) {
+        int width = colTo - colFrom;
+        java.util.Arrays.fill(dots, 0, width, 0.0);
+        for (int i = rowFrom; i < rowTo; i++) {
+            Matrix.axpy(v[i], M, i * cols + colFrom, dots, 0, width);
+        }
+        for (int i = rowFrom; i < rowTo; i++) {
+            Matrix.axpy(-beta * v[i], dots, 0, M, i * cols + colFrom, width);
+        }
+    }
+
+    @Override
+    public boolean usesNormalEquations() {
+        return false;
+    }
+}
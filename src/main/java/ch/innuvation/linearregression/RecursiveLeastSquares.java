@@ -0,0 +1,255 @@
+package ch.innuvation.linearregression;
+
+/**
+ * Online least squares: folds new rows into a fitted linear model in O(d²) per row
+ *
+ * Maintains P = (X^T X)^-1 (with the implicit bias column) next to the weights
+ * W. A new row z = [1, x] with target y updates both without refitting:
+ * ```
+ * u = P z
+ * k = u / (λ + z^T u)
+ * W ← W + k (y - W^T z)^T      // Sherman-Morrison rank-1 update
+ * P ← (P - k u^T) / λ
+ * ```
+ * A block of m rows is folded in at once with the Woodbury identity, which
+ * replaces the scalar λ + z^T u by an m×m system solved with Cholesky.
+ *
+ * λ is the forgetting factor: 1 (the default) gives exactly the least-squares
+ * solution over all rows seen so far; λ < 1 weights older rows down by λ per
+ * update, so the model tracks drifting data. The weights are shared with
+ * {@link #model()}, whose predictions see every update immediately. Not
+ * thread-safe: updates must not overlap with each other or with predictions.
+ */
+public class RecursiveLeastSquares {
+    private final int numFeatures;
+    private final int numOutputs;
+    private final Matrix P;        // [numFeatures + 1][numFeatures + 1], symmetric
+    private final Matrix weights;  // [numFeatures + 1][numOutputs], shared with the model
+    private final LinearRegression model;
+    private double forgettingFactor = 1.0;
+    private long count;
+
+    // Scratch for rank-1 updates
+    private final double[] u;
+    private final double[] error;
+
+    /**
+     * Start from zero weights and the prior P = I / delta
+     *
+     * Equivalent to ridge regression with penalty delta on every weight
+     * (including the bias), so a small delta gives a weak prior.
+     * @param numFeatures Number of input features (without bias)
+     * @param numOutputs Number of outputs
+     * @param delta Initial regularization, e.g. 1e-4
+     */
+    public RecursiveLeastSquares(int numFeatures, int numOutputs, double delta) {
+        this(numFeatures, numOutputs);
+        if (delta <= 0.0) {
+            throw new IllegalArgumentException("delta must be positive");
+        }
+        int n = numFeatures + 1;
+        for (int i = 0; i < n; i++) {
+            P.set(i, i, 1.0 / delta);
+        }
+    }
+
+    /**
+     * Start from the exact least-squares fit of the rows accumulated so far
+     * @param stats Statistics of the initial training rows (X^T X must be positive definite)
+     */
+    public RecursiveLeastSquares(SufficientStatistics stats) {
+        this(stats.numFeatures(), stats.numOutputs());
+        int n = numFeatures + 1;
+        double[] L = CholeskySolver.factor(stats.gram());
+        for (int i = 0; i < n; i++) {
+            P.set(i, i, 1.0);
+        }
+        CholeskySolver.substitute(L, n, P);
+        Matrix.multiply(P, stats.xty(), weights);
+        count = stats.count();
+    }
+
+    private RecursiveLeastSquares(int numFeatures, int numOutputs) {
+        if (numFeatures < 0 || numOutputs <= 0) {
+            throw new IllegalArgumentException("Invalid dimensions");
+        }
+        this.numFeatures = numFeatures;
+        this.numOutputs = numOutputs;
+        this.P = new Matrix(numFeatures + 1, numFeatures + 1);
+        this.weights = new Matrix(numFeatures + 1, numOutputs);
+        this.model = new LinearRegression(true);
+        this.model.setWeights(weights);
+        this.u = new double[numFeatures + 1];
+        this.error = new double[numOutputs];
+    }
+
+    /**
+     * @param forgettingFactor λ in (0, 1]; 1 keeps every row at full weight
+     */
+    public void setForgettingFactor(double forgettingFactor) {
+        if (!(forgettingFactor > 0.0 && forgettingFactor <= 1.0)) {
+            throw new IllegalArgumentException("Forgetting factor must be in (0, 1]");
+        }
+        this.forgettingFactor = forgettingFactor;
+    }
+
+    /**
+     * Fold in one row (Sherman-Morrison, no allocation)
+     * @param x Features [numFeatures]
+     * @param y Targets [numOutputs]
+     */
+    public void update(double[] x, double[] y) {
+        update(x, 0, y, 0);
+    }
+
+    /**
+     * Fold in one row of flat buffers (Sherman-Morrison, no allocation)
+     * @param x Buffer holding the features
+     * @param xOff Index of the first feature in x
+     * @param y Buffer holding the targets
+     * @param yOff Index of the first target in y
+     */
+    public void update(double[] x, int xOff, double[] y, int yOff) {
+        int n = numFeatures + 1;
+        double[] p = P.data();
+        double[] w = weights.data();
+
+        // u = P z with z = [1, x]
+        for (int i = 0; i < n; i++) {
+            u[i] = p[i * n] + Matrix.dot(p, i * n + 1, x, xOff, numFeatures);
+        }
+        double denom = forgettingFactor + u[0] + Matrix.dot(u, 1, x, xOff, numFeatures);
+
+        // error = y - W^T z (a priori)
+        for (int j = 0; j < numOutputs; j++) {
+            error[j] = y[yOff + j] - w[j];
+        }
+        for (int i = 0; i < numFeatures; i++) {
+            Matrix.axpy(-x[xOff + i], w, (i + 1) * numOutputs, error, 0, numOutputs);
+        }
+
+        // W += k e^T with k = u / denom
+        for (int i = 0; i < n; i++) {
+            Matrix.axpy(u[i] / denom, error, 0, w, i * numOutputs, numOutputs);
+        }
+
+        // P = (P - u u^T / denom) / λ on the upper triangle, then mirrored
+        for (int i = 0; i < n; i++) {
+            Matrix.axpy(-u[i] / denom, u, i, p, i * n + i, n - i);
+        }
+        finishCovarianceUpdate();
+        count++;
+    }
+
+    /**
+     * Fold in a block of packed rows at once (Woodbury rank-m update)
+     *
+     * Costs O(m·d² + m²·d + m³), which beats m rank-1 updates for small blocks
+     * of rows arriving together.
+     * @param x Row-major features [rows * numFeatures]
+     * @param y Row-major targets [rows * numOutputs]
+     * @param rows Number of rows m
+     */
+    public void update(double[] x, double[] y, int rows) {
+        if (rows == 1) {
+            update(x, 0, y, 0);
+            return;
+        }
+        if (rows == 0) {
+            return;
+        }
+        int n = numFeatures + 1;
+
+        // Z = [1, X] (m x n)
+        Matrix Z = new Matrix(rows, n);
+        double[] z = Z.data();
+        for (int a = 0; a < rows; a++) {
+            z[a * n] = 1.0;
+            System.arraycopy(x, a * numFeatures, z, a * n + 1, numFeatures);
+        }
+
+        // U^T = Z P (P symmetric), S = λI + Z P Z^T (m x m)
+        Matrix Ut = Z.multiply(P);
+        Matrix S = new Matrix(rows, rows);
+        Matrix.multiplyTransposedAdd(Ut, Z, S);
+        for (int a = 0; a < rows; a++) {
+            S.add(a, a, forgettingFactor);
+        }
+
+        // E = Y - Z W (a priori errors, m x k)
+        Matrix E = new Matrix(rows, numOutputs);
+        double[] e = E.data();
+        System.arraycopy(y, 0, e, 0, rows * numOutputs);
+        Matrix ZW = Z.multiply(weights);
+        Matrix.axpy(-1.0, ZW.data(), 0, e, 0, e.length);
+
+        // K^T = S^-1 U^T (m x n)
+        Matrix Kt = Ut.copy();
+        CholeskySolver.substitute(CholeskySolver.factor(S), rows, Kt);
+
+        // W += K E
+        double[] w = weights.data();
+        double[] kt = Kt.data();
+        for (int a = 0; a < rows; a++) {
+            for (int i = 0; i < n; i++) {
+                Matrix.axpy(kt[a * n + i], e, a * numOutputs, w, i * numOutputs, numOutputs);
+            }
+        }
+
+        // P = (P - U S^-1 U^T) / λ on the upper triangle, then mirrored
+        double[] p = P.data();
+        double[] ut = Ut.data();
+        for (int a = 0; a < rows; a++) {
+            for (int i = 0; i < n; i++) {
+                Matrix.axpy(-ut[a * n + i], kt, a * n + i, p, i * n + i, n - i);
+            }
+        }
+        finishCovarianceUpdate();
+        count += rows;
+    }
+
+    /**
+     * Fold in rows given as jagged arrays, one Woodbury update per call
+     * @param X Features [rows][numFeatures]
+     * @param Y Targets [rows][numOutputs]
+     */
+    public void update(double[][] X, double[][] Y) {
+        if (X.length != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        update(Matrix.fromArray(X).data(), Matrix.fromArray(Y).data(), X.length);
+    }
+
+    /**
+     * Apply the forgetting factor and copy the upper triangle of P onto the lower one
+     */
+    private void finishCovarianceUpdate() {
+        int n = numFeatures + 1;
+        double[] p = P.data();
+        double scale = 1.0 / forgettingFactor;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                double v = p[i * n + j];
+                if (forgettingFactor != 1.0) {
+                    v *= scale;
+                    p[i * n + j] = v;
+                }
+                p[j * n + i] = v;
+            }
+        }
+    }
+
+    /**
+     * Model whose weights are updated in place by this object
+     */
+    public LinearRegression model() {
+        return model;
+    }
+
+    /**
+     * Number of rows folded in (including those of the initial statistics)
+     */
+    public long count() {
+        return count;
+    }
+}
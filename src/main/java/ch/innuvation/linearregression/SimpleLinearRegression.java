@@ -1,5 +1,13 @@
 package ch.innuvation.linearregression;
 
+import ch.innuvation.training.ConvergenceMonitor;
+import ch.innuvation.training.Optimizer;
+import ch.innuvation.training.StopReason;
+import ch.innuvation.training.StoppingCriteria;
+import ch.innuvation.training.TrainingListener;
+import ch.innuvation.training.TrainingRun;
+import ch.innuvation.training.TrainingSummary;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,16 +19,22 @@ public class SimpleLinearRegression {
     private double w0;  // bias
     private double w1;  // weight for x1
     private double w2;  // weight for x2
-    private double learningRate;
+    private Optimizer optimizer;
     private int maxIterations;
     private boolean trained = false;
+    private StoppingCriteria stoppingCriteria = StoppingCriteria.none();
+    private double[][] validationX;
+    private double[] validationY;
+    private TrainingSummary summary;
+    private TrainingListener listener = TrainingListener.SILENT;
 
     // Store the path taken during gradient descent
     private List<double[]> optimizationPath;
     private List<Double> errorHistory;
+    private double[] initialWeights;  // {w0, w1, w2} gradient descent started from
 
     public SimpleLinearRegression(double learningRate, int maxIterations) {
-        this.learningRate = learningRate;
+        this.optimizer = Optimizer.sgd(learningRate);
         this.maxIterations = maxIterations;
         this.optimizationPath = new ArrayList<>();
         this.errorHistory = new ArrayList<>();
@@ -37,13 +51,25 @@ public class SimpleLinearRegression {
         w0 = (Math.random() - 0.5) * 0.1;
         w1 = (Math.random() - 0.5) * 0.1;
         w2 = (Math.random() - 0.5) * 0.1;
-
-        System.out.println("Starting gradient descent from: w0=" + w0 + ", w1=" + w1 + ", w2=" + w2);
+        initialWeights = new double[]{w0, w1, w2};
 
         // Store initial position
         optimizationPath.add(new double[]{w1, w2});
         errorHistory.add(computeMSE(X, y));
 
+        if (stoppingCriteria.usesValidation() && validationX == null) {
+            throw new IllegalStateException("Validation patience needs validation data (setValidationData)");
+        }
+        listener.trainingStarted(new TrainingRun("gradient descent", "MSE", "Iteration", numSamples, maxIterations,
+                "w1", "w2"));
+        ConvergenceMonitor monitor = stoppingCriteria.start();
+        double[] best = new double[3];
+        double[] weights = new double[3];
+        double[] gradients = new double[3];
+        double[] reported = new double[2];  // {w1, w2} as passed to the listener
+        Optimizer.Updater updater = optimizer.start(3);
+        StopReason stop = StopReason.MAX_ITERATIONS;
+
         // Gradient descent
         for (int iter = 0; iter < maxIterations; iter++) {
             double grad0 = 0.0;
@@ -68,25 +94,51 @@ public class SimpleLinearRegression {
             grad1 /= numSamples;
             grad2 /= numSamples;
 
-            // Update weights
-            w0 -= learningRate * grad0;
-            w1 -= learningRate * grad1;
-            w2 -= learningRate * grad2;
+            // Update weights (gradients are already averaged)
+            weights[0] = w0;
+            weights[1] = w1;
+            weights[2] = w2;
+            gradients[0] = grad0;
+            gradients[1] = grad1;
+            gradients[2] = grad2;
+            updater.update(weights, gradients, 1.0);
+            w0 = weights[0];
+            w1 = weights[1];
+            w2 = weights[2];
+
+            double gradientNorm = Math.sqrt(grad0 * grad0 + grad1 * grad1 + grad2 * grad2);
+            StopReason reason = monitor.check(totalError / numSamples, gradientNorm,
+                    monitor.usesValidation() ? computeMSE(validationX, validationY) : Double.NaN);
+            if (monitor.isBestValidation()) {
+                best[0] = w0;
+                best[1] = w1;
+                best[2] = w2;
+            }
 
             // Store path (every 5 iterations to avoid too many points)
-            if (iter % 5 == 0 || iter == maxIterations - 1) {
+            if (iter % 5 == 0 || iter == maxIterations - 1 || reason != null) {
                 optimizationPath.add(new double[]{w1, w2});
                 errorHistory.add(totalError / numSamples);
             }
-
-            if (iter % 100 == 0 || iter == maxIterations - 1) {
-                double mse = totalError / numSamples;
-                System.out.printf("Iteration %d: MSE = %.6f, w1=%.3f, w2=%.3f%n", iter, mse, w1, w2);
+            reported[0] = w1;
+            reported[1] = w2;
+            listener.iterationCompleted(iter, totalError / numSamples, gradientNorm,
+                    monitor.samplesPerSecond(numSamples), monitor.elapsedNanos(), reported);
+            if (reason != null) {
+                stop = reason;
+                break;
             }
         }
 
+        summary = monitor.finish(stop);
+        if (stop == StopReason.VALIDATION_PATIENCE) {
+            w0 = best[0];
+            w1 = best[1];
+            w2 = best[2];
+        }
+        listener.trainingFinished(summary);
+
         trained = true;
-        System.out.println("Final weights: w0=" + w0 + ", w1=" + w1 + ", w2=" + w2);
     }
 
     public double predict(double[] x) {
@@ -122,6 +174,48 @@ public class SimpleLinearRegression {
         return totalError / X.length;
     }
 
+    /**
+     * Choose how gradient descent turns gradients into weight updates
+     * @param optimizer e.g. {@link Optimizer#adam(double)} (default: plain
+     *                  {@link Optimizer#sgd(double)} with the constructor's learning rate)
+     */
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+    }
+
+    /**
+     * End training early, e.g. once the loss has flattened
+     * @param criteria Stopping criteria (default: run all iterations)
+     */
+    public void setStoppingCriteria(StoppingCriteria criteria) {
+        this.stoppingCriteria = criteria;
+    }
+
+    /**
+     * Held-out points monitored by {@link StoppingCriteria#validationPatience(int)}
+     */
+    public void setValidationData(double[][] X, double[] y) {
+        if (X.length == 0 || X.length != y.length) {
+            throw new IllegalArgumentException("Validation X and y must be non-empty and have same number of samples");
+        }
+        this.validationX = X;
+        this.validationY = y;
+    }
+
+    /**
+     * Receive progress and loss events during training (default: silent)
+     */
+    public void setTrainingListener(TrainingListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Why and when the last training run stopped (null before training)
+     */
+    public TrainingSummary getTrainingSummary() {
+        return summary;
+    }
+
     public List<double[]> getOptimizationPath() {
         return optimizationPath;
     }
@@ -130,6 +224,14 @@ public class SimpleLinearRegression {
         return errorHistory;
     }
 
+    /**
+     * Random weights the last training run started from
+     * @return {w0, w1, w2}, or null before training
+     */
+    public double[] getInitialWeights() {
+        return initialWeights == null ? null : initialWeights.clone();
+    }
+
     public double getW0() { return w0; }
     public double getW1() { return w1; }
     public double getW2() { return w2; }
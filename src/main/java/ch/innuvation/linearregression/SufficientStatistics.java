@@ -0,0 +1,280 @@
+package ch.innuvation.linearregression;
+
+import ch.innuvation.data.RowSource;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Mergeable sufficient statistics of a least-squares problem: X^T X, X^T Y,
+ * the row count and the per-output target sums
+ *
+ * The design matrix is never materialized: rows are read block by block from
+ * the caller's X with an implicit leading bias column of ones, so the state is
+ * O(d²) regardless of the number of samples. Because X^T X is symmetric only
+ * its upper triangle is accumulated; {@link #gram()} mirrors it on demand.
+ *
+ * Rows are processed in blocks, and the upper triangle in square tiles, so a
+ * block of rows stays in cache while every tile of the Gram matrix it
+ * contributes to is updated.
+ *
+ * Statistics built on different shards of the data (other threads, or other
+ * machines via {@link #write(DataOutput)} / {@link #read(DataInput)}) are
+ * combined with {@link #merge(SufficientStatistics)}; the merged statistics
+ * are those of the union of the shards, so the solved weights are the same as
+ * training on all rows at once (up to floating-point summation order).
+ * Instances are not thread-safe: use one per thread and merge them.
+ */
+public final class SufficientStatistics {
+    private static final int ROW_BLOCK = 64;
+    private static final int TILE = 64;
+
+    private final int numFeatures;
+    private final int numOutputs;
+    private final Matrix xtx;  // [numFeatures + 1][numFeatures + 1], upper triangle only
+    private final Matrix xty;  // [numFeatures + 1][numOutputs]; row 0 holds the target sums
+    private long count;
+
+    /**
+     * Create empty statistics
+     * @param numFeatures Number of input features (without bias)
+     * @param numOutputs Number of outputs
+     */
+    public SufficientStatistics(int numFeatures, int numOutputs) {
+        if (numFeatures < 0 || numOutputs <= 0) {
+            throw new IllegalArgumentException("Invalid dimensions");
+        }
+        this.numFeatures = numFeatures;
+        this.numOutputs = numOutputs;
+        this.xtx = new Matrix(numFeatures + 1, numFeatures + 1);
+        this.xty = new Matrix(numFeatures + 1, numOutputs);
+    }
+
+    /**
+     * Add all rows of X and Y
+     * @param X Features [numSamples][numFeatures] (without bias column)
+     * @param Y Targets [numSamples][numOutputs]
+     */
+    public void partialFit(double[][] X, double[][] Y) {
+        if (X.length != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        partialFit(X, Y, 0, X.length);
+    }
+
+    /**
+     * Add the rows [from, to) of X and Y
+     * @param X Features [numSamples][numFeatures] (without bias column)
+     * @param Y Targets [numSamples][numOutputs]
+     */
+    public void partialFit(double[][] X, double[][] Y, int from, int to) {
+        // Pack one block of rows at a time so the kernels below read contiguous memory
+        double[] x = new double[ROW_BLOCK * numFeatures];
+        double[] y = new double[ROW_BLOCK * numOutputs];
+        for (int blockStart = from; blockStart < to; blockStart += ROW_BLOCK) {
+            int rows = Math.min(ROW_BLOCK, to - blockStart);
+            for (int r = 0; r < rows; r++) {
+                if (X[blockStart + r].length != numFeatures || Y[blockStart + r].length != numOutputs) {
+                    throw new IllegalArgumentException("Row " + (blockStart + r) + " does not match the dimensions");
+                }
+                System.arraycopy(X[blockStart + r], 0, x, r * numFeatures, numFeatures);
+                System.arraycopy(Y[blockStart + r], 0, y, r * numOutputs, numOutputs);
+            }
+            partialFit(x, y, rows);
+        }
+    }
+
+    /**
+     * Add packed rows
+     * @param x Row-major features [rows * numFeatures] (without bias column)
+     * @param y Row-major targets [rows * numOutputs]
+     * @param rows Number of rows in the buffers
+     */
+    public void partialFit(double[] x, double[] y, int rows) {
+        for (int blockStart = 0; blockStart < rows; blockStart += ROW_BLOCK) {
+            int blockEnd = Math.min(blockStart + ROW_BLOCK, rows);
+            accumulateBias(x, y, blockStart, blockEnd);
+            accumulateTiles(x, blockStart, blockEnd);
+        }
+        count += rows;
+    }
+
+    /**
+     * Add every row of a block-wise data source
+     */
+    public void partialFit(RowSource data) {
+        if (data.numFeatures() != numFeatures || data.numOutputs() != numOutputs) {
+            throw new IllegalArgumentException("Data source does not match the dimensions");
+        }
+        int blockRows = data.blockRows();
+        double[] x = new double[blockRows * numFeatures];
+        double[] y = new double[blockRows * numOutputs];
+        for (long first = 0; first < data.numRows(); ) {
+            int rows = data.read(first, blockRows, x, y);
+            if (rows <= 0) {
+                throw new IllegalStateException("Row source ended at row " + first + " of " + data.numRows());
+            }
+            partialFit(x, y, rows);
+            first += rows;
+        }
+    }
+
+    /**
+     * Add the statistics of another shard to these
+     */
+    public void merge(SufficientStatistics other) {
+        if (other.numFeatures != numFeatures || other.numOutputs != numOutputs) {
+            throw new IllegalArgumentException("Statistics dimensions do not match");
+        }
+        double[] g = xtx.data();
+        double[] b = xty.data();
+        Matrix.axpy(1.0, other.xtx.data(), 0, g, 0, g.length);
+        Matrix.axpy(1.0, other.xty.data(), 0, b, 0, b.length);
+        count += other.count;
+    }
+
+    /**
+     * Bias row of X^T X (row count and feature sums) and the whole of X^T Y
+     */
+    private void accumulateBias(double[] x, double[] y, int from, int to) {
+        double[] g = xtx.data();
+        double[] b = xty.data();
+        for (int r = from; r < to; r++) {
+            int xRow = r * numFeatures;
+            int yRow = r * numOutputs;
+            g[0] += 1.0;
+            Matrix.axpy(1.0, x, xRow, g, 1, numFeatures);
+            Matrix.axpy(1.0, y, yRow, b, 0, numOutputs);
+            for (int i = 0; i < numFeatures; i++) {
+                Matrix.axpy(x[xRow + i], y, yRow, b, (i + 1) * numOutputs, numOutputs);
+            }
+        }
+    }
+
+    /**
+     * Feature-feature part of the upper triangle, tile by tile
+     */
+    private void accumulateTiles(double[] x, int from, int to) {
+        int n = numFeatures + 1;
+        double[] g = xtx.data();
+        for (int ti = 0; ti < numFeatures; ti += TILE) {
+            int tiEnd = Math.min(ti + TILE, numFeatures);
+            for (int tj = ti; tj < numFeatures; tj += TILE) {
+                int tjEnd = Math.min(tj + TILE, numFeatures);
+                for (int r = from; r < to; r++) {
+                    int xRow = r * numFeatures;
+                    for (int i = ti; i < tiEnd; i++) {
+                        double xi = x[xRow + i];
+                        if (xi == 0.0) {
+                            continue;
+                        }
+                        int jStart = Math.max(i, tj);
+                        Matrix.axpy(xi, x, xRow + jStart, g, (i + 1) * n + 1 + jStart, tjEnd - jStart);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve the Normal Equation (X^T X) β = X^T Y for the current statistics
+     * @param solver A solver working on the Normal Equation (not {@link QrSolver})
+     * @return Weights [numFeatures + 1][numOutputs], bias row first
+     */
+    public Matrix solve(LinearSolver solver) {
+        if (!solver.usesNormalEquations()) {
+            throw new IllegalArgumentException(solver.getClass().getSimpleName()
+                    + " needs the design matrix; use a Normal Equation solver");
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No rows have been added");
+        }
+        return solver.solve(gram(), xty);
+    }
+
+    public int numFeatures() { return numFeatures; }
+    public int numOutputs() { return numOutputs; }
+
+    /**
+     * Number of rows added so far
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Per-output sums of the targets Σ yⱼ (a copy)
+     */
+    public double[] targetSums() {
+        double[] sums = new double[numOutputs];
+        System.arraycopy(xty.data(), 0, sums, 0, numOutputs);
+        return sums;
+    }
+
+    /**
+     * Full symmetric X^T X (the lower triangle mirrored from the upper one)
+     */
+    Matrix gram() {
+        int n = numFeatures + 1;
+        Matrix result = xtx.copy();
+        double[] g = result.data();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                g[j * n + i] = g[i * n + j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * X^T Y (shared, not a copy)
+     */
+    Matrix xty() {
+        return xty;
+    }
+
+    /**
+     * Write the statistics so another process can {@link #read(DataInput)} and merge them
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(numFeatures);
+        out.writeInt(numOutputs);
+        out.writeLong(count);
+        int n = numFeatures + 1;
+        double[] g = xtx.data();
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                out.writeDouble(g[i * n + j]);
+            }
+        }
+        for (double v : xty.data()) {
+            out.writeDouble(v);
+        }
+    }
+
+    /**
+     * Read statistics written by {@link #write(DataOutput)}
+     */
+    public static SufficientStatistics read(DataInput in) throws IOException {
+        int numFeatures = in.readInt();
+        int numOutputs = in.readInt();
+        if (numFeatures < 0 || numOutputs <= 0) {
+            throw new IOException("Invalid statistics header");
+        }
+        SufficientStatistics stats = new SufficientStatistics(numFeatures, numOutputs);
+        stats.count = in.readLong();
+        int n = numFeatures + 1;
+        double[] g = stats.xtx.data();
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                g[i * n + j] = in.readDouble();
+            }
+        }
+        double[] b = stats.xty.data();
+        for (int i = 0; i < b.length; i++) {
+            b[i] = in.readDouble();
+        }
+        return stats;
+    }
+}
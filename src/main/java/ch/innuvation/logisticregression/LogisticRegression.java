@@ -1,29 +1,95 @@
 package ch.innuvation.logisticregression;
 
+import ch.innuvation.data.CsrMatrix;
+import ch.innuvation.data.ModelFile;
+import ch.innuvation.data.RowSource;
+import ch.innuvation.kernel.Kernels;
+import ch.innuvation.kernel.Predictor;
+import ch.innuvation.kernel.PredictorCompiler;
+import ch.innuvation.linearregression.CholeskySolver;
+import ch.innuvation.linearregression.Matrix;
+import ch.innuvation.training.ChunkedExecutor;
+import ch.innuvation.training.ConvergenceMonitor;
+import ch.innuvation.training.Lbfgs;
+import ch.innuvation.training.LearningRateSchedule;
+import ch.innuvation.training.Optimizer;
+import ch.innuvation.training.Precision;
+import ch.innuvation.training.StopReason;
+import ch.innuvation.training.StoppingCriteria;
+import ch.innuvation.training.TrainingListener;
+import ch.innuvation.training.TrainingRun;
+import ch.innuvation.training.TrainingSummary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Logistic Regression for binary and multi-class classification
  * Uses softmax activation for multi-class and sigmoid for binary classification
- * Trained with gradient descent
+ * Trained with gradient descent, L-BFGS or Newton (see {@link Solver}), or online
+ * with {@link #partialFit(double[], double[])}
  */
 public class LogisticRegression {
-    private double[][] weights;  // [numFeatures + 1][numClasses] (includes bias)
-    private double learningRate;
+    private static final Kernels KERNELS = Kernels.ACTIVE;
+    private static final int LBFGS_HISTORY = 10;
+    private static final double NEWTON_TOLERANCE = 1e-10;
+
+    /**
+     * Optimization method used by {@link #train}
+     */
+    public enum Solver {
+        /** Fixed-step gradient descent with the model's learning rate */
+        GRADIENT_DESCENT,
+        /**
+         * Limited-memory BFGS with a strong Wolfe line search: no learning rate,
+         * typically converges in tens of passes over the data where gradient
+         * descent needs thousands, especially on badly scaled features
+         */
+        LBFGS,
+        /**
+         * Newton's method (iteratively reweighted least squares) for binary
+         * problems: each pass builds the weighted Hessian and solves it with a
+         * Cholesky factorization, usually converging in fewer than ten passes.
+         * Costs O(numFeatures²) per row and O(numFeatures³) per step, so it
+         * suits up to a few hundred features
+         */
+        NEWTON
+    }
+
+    private Matrix weights;  // [numFeatures + 1][numClasses] (includes bias), row-major
+    private Optimizer optimizer;
+    private Precision precision = Precision.DOUBLE;
     private int maxIterations;
     private boolean trained = false;
     private int numClasses;
+    private Solver solver = Solver.GRADIENT_DESCENT;
+    private ChunkedExecutor executor = ChunkedExecutor.serial();
+    private StoppingCriteria stoppingCriteria = StoppingCriteria.none();
+    private double[][] validationX;
+    private double[][] validationY;
+    private TrainingSummary summary;
+    private TrainingListener listener = TrainingListener.SILENT;
+
+    // Online training state
+    private LearningRateSchedule schedule;
+    private long updates;
+    private double[] onlineGradients;      // [numFeatures + 1][numClasses]
+    private double[] onlineProbabilities;  // [numClasses]
 
     /**
      * Create a Logistic Regression model
-     * @param learningRate Learning rate for gradient descent
+     * @param learningRate Learning rate for gradient descent (and the constant
+     *                     rate of online updates unless a schedule is set)
      * @param maxIterations Maximum number of training iterations
      */
     public LogisticRegression(double learningRate, int maxIterations) {
-        this.learningRate = learningRate;
+        this.optimizer = Optimizer.sgd(learningRate);
         this.maxIterations = maxIterations;
+        this.schedule = LearningRateSchedule.constant(learningRate);
     }
 
     /**
-     * Train the model using gradient descent with cross-entropy loss
+     * Train the model with cross-entropy loss using the configured {@link Solver}
      * @param X Training features [numSamples][numFeatures]
      * @param Y Training labels (one-hot encoded) [numSamples][numClasses]
      */
@@ -39,68 +105,805 @@ public class LogisticRegression {
         int numFeatures = X[0].length;
         numClasses = Y[0].length;
 
-        // Initialize weights randomly (small values)
-        weights = new double[numFeatures + 1][numClasses];
-        java.util.Random rand = new java.util.Random(42);
-        for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[i].length; j++) {
-                weights[i][j] = (rand.nextDouble() - 0.5) * 0.01;
+        if (precision == Precision.FLOAT) {
+            if (solver == Solver.NEWTON) {
+                throw new IllegalStateException("Newton solver needs double precision");
             }
+            // Pack the data once into contiguous single-precision buffers
+            float[] x = Matrix.toFloatArray(X);
+            float[] y = Matrix.toFloatArray(Y);
+
+            initializeWeights(numFeatures);
+            minimize(singlePrecisionPass(x, y, numSamples), numSamples);
+        } else {
+            // Pack the data once into contiguous row-major buffers
+            double[] x = Matrix.fromArray(X).data();
+            double[] y = Matrix.fromArray(Y).data();
+
+            initializeWeights(numFeatures);
+
+            // The whole data set is a single block
+            optimize(consumer -> consumer.accept(x, y, numSamples), numSamples, numSamples);
         }
 
-        // Gradient descent
-        for (int iter = 0; iter < maxIterations; iter++) {
-            // Compute gradients
-            double[][] gradients = new double[numFeatures + 1][numClasses];
+        trained = true;
+    }
+
+    /**
+     * Train the model from a block-wise data source, e.g. a memory-mapped
+     * {@link ch.innuvation.data.MappedDataset}, without loading it into the heap
+     *
+     * Every gradient-descent iteration streams the rows block by block; within a
+     * block the gradient pass runs in chunks on the executor as for in-heap data.
+     * @param data Training rows with one-hot labels as outputs
+     */
+    public void train(RowSource data) {
+        if (data.numRows() == 0) {
+            throw new IllegalArgumentException("Training data cannot be empty");
+        }
+
+        long numSamples = data.numRows();
+        int numFeatures = data.numFeatures();
+        numClasses = data.numOutputs();
+        int blockRows = data.blockRows();
+        double[] x = new double[blockRows * numFeatures];
+        double[] y = new double[blockRows * numClasses];
+
+        initializeWeights(numFeatures);
 
+        // Every pass streams the data block by block
+        optimize(consumer -> {
+            for (long first = 0; first < numSamples; ) {
+                int rows = data.read(first, blockRows, x, y);
+                if (rows <= 0) {
+                    throw new IllegalStateException("Row source ended at row " + first + " of " + numSamples);
+                }
+                consumer.accept(x, y, rows);
+                first += rows;
+            }
+        }, numSamples, blockRows);
+
+        trained = true;
+    }
+
+    /**
+     * Train the model on sparse features with gradient descent or L-BFGS
+     *
+     * Every pass visits only the stored entries of X, so the forward pass and the
+     * gradient accumulation cost O(nnz · numClasses) instead of O(N · d · numClasses);
+     * each weight update still touches all weights. The sparse pass runs on the
+     * calling thread, with a single gradient buffer. Precision settings do not
+     * apply; the entries are already stored as double.
+     * @param X Training features in compressed sparse row format
+     * @param Y Training labels (one-hot encoded) [numSamples][numClasses]
+     */
+    public void train(CsrMatrix X, double[][] Y) {
+        if (X.numRows() == 0 || Y.length == 0) {
+            throw new IllegalArgumentException("Training data cannot be empty");
+        }
+        if (X.numRows() != Y.length) {
+            throw new IllegalArgumentException("X and Y must have same number of samples");
+        }
+        if (solver == Solver.NEWTON) {
+            throw new IllegalStateException("Newton solver does not support sparse input");
+        }
+
+        int numSamples = X.numRows();
+        numClasses = Y[0].length;
+        double[] y = Matrix.fromArray(Y).data();
+        double[] probabilities = new double[numClasses];
+
+        initializeWeights(X.numCols());
+        minimize(g -> {
+            java.util.Arrays.fill(g, 0.0);
             double totalLoss = 0.0;
             for (int i = 0; i < numSamples; i++) {
-                // Forward pass (get probabilities)
-                double[] probabilities = predictProbabilities(X[i]);
+                totalLoss += accumulateRow(X, i, y, g, probabilities);
+            }
+            return totalLoss;
+        }, numSamples);
 
-                // Compute cross-entropy loss
-                for (int j = 0; j < numClasses; j++) {
-                    if (Y[i][j] == 1.0) {
-                        totalLoss -= Math.log(probabilities[j] + 1e-15); // add small epsilon to avoid log(0)
-                    }
+        trained = true;
+    }
+
+    /**
+     * The training data as a sequence of packed row-major blocks
+     */
+    private interface Blocks {
+        void forEach(BlockConsumer consumer);
+    }
+
+    private interface BlockConsumer {
+        /**
+         * @param x Packed features [rows * numFeatures]
+         * @param y Packed one-hot labels [rows * numClasses]
+         */
+        void accept(double[] x, double[] y, int rows);
+    }
+
+    /**
+     * One full pass over the training data at the current weights
+     */
+    private interface LossPass {
+        /**
+         * @param gradients Receives the cross-entropy gradient summed over all rows
+         * @return Cross-entropy loss summed over all rows
+         */
+        double run(double[] gradients);
+    }
+
+    /**
+     * Run the configured solver on the freshly initialized weights
+     * @param data Training rows
+     * @param numSamples Total number of rows
+     * @param maxBlockRows Largest block the data is delivered in
+     */
+    private void optimize(Blocks data, long numSamples, int maxBlockRows) {
+        if (solver == Solver.NEWTON) {
+            trainNewton(data, numSamples, maxBlockRows);
+            return;
+        }
+
+        // One gradient buffer and loss slot per chunk of a block, reduced in chunk order
+        // so the result is bit-identical for any number of threads
+        int numChunks = executor.numChunks(maxBlockRows);
+        int size = weights.data().length;
+        double[][] partialGradients = new double[numChunks][size];
+        double[][] partialProbabilities = new double[numChunks][numClasses];
+        double[] partialLoss = new double[numChunks];
+
+        // Full pass: summed gradient into g, summed loss returned
+        LossPass pass = g -> {
+            java.util.Arrays.fill(g, 0.0);
+            double[] totalLoss = {0.0};
+            data.forEach((x, y, rows) -> {
+                executor.forEachChunk(rows, (chunk, from, to) ->
+                        partialLoss[chunk] = accumulateGradient(x, y, from, to, partialGradients[chunk], partialProbabilities[chunk]));
+                for (int c = 0; c < executor.numChunks(rows); c++) {
+                    Matrix.axpy(1.0, partialGradients[c], 0, g, 0, g.length);
+                    totalLoss[0] += partialLoss[c];
                 }
+            });
+            return totalLoss[0];
+        };
+        minimize(pass, numSamples);
+    }
+
+    /**
+     * Gradient pass over single-precision rows
+     *
+     * The forward pass runs on float features and a transposed float copy of the
+     * current weights, taken at the start of every pass; losses and gradients
+     * are accumulated in double per chunk and reduced in chunk order.
+     * @param x Packed features [numSamples * numFeatures]
+     * @param y Packed one-hot labels [numSamples * numClasses]
+     */
+    private LossPass singlePrecisionPass(float[] x, float[] y, int numSamples) {
+        int numChunks = executor.numChunks(numSamples);
+        int p = weights.rows();
+        double[] w = weights.data();
+        float[] wt = new float[w.length];  // transposed [numClasses][numFeatures + 1]
+        double[][] partialGradients = new double[numChunks][w.length];
+        double[][] partialTransposed = new double[numChunks][w.length];
+        double[][] partialProbabilities = new double[numChunks][numClasses];
+        double[] partialLoss = new double[numChunks];
 
-                // Compute gradients (derivative of cross-entropy with softmax)
-                // Gradient is simply (predicted - actual)
-                double[] error = new double[numClasses];
+        ChunkedExecutor.ChunkBody gradientPass = (chunk, from, to) ->
+                partialLoss[chunk] = accumulateGradient(x, y, wt, from, to,
+                        partialGradients[chunk], partialProbabilities[chunk], partialTransposed[chunk]);
+
+        return g -> {
+            for (int i = 0; i < p; i++) {
                 for (int j = 0; j < numClasses; j++) {
-                    error[j] = probabilities[j] - Y[i][j];
+                    wt[j * p + i] = (float) w[i * numClasses + j];
                 }
+            }
+            executor.forEachChunk(numSamples, gradientPass);
 
-                // Accumulate gradients
-                // Bias gradient
-                for (int j = 0; j < numClasses; j++) {
-                    gradients[0][j] += error[j];
+            java.util.Arrays.fill(g, 0.0);
+            double totalLoss = 0.0;
+            for (int c = 0; c < numChunks; c++) {
+                Matrix.axpy(1.0, partialGradients[c], 0, g, 0, g.length);
+                totalLoss += partialLoss[c];
+            }
+            return totalLoss;
+        };
+    }
+
+    /**
+     * Run gradient descent or L-BFGS on the given gradient pass
+     */
+    private void minimize(LossPass pass, long numSamples) {
+        if (solver == Solver.LBFGS) {
+            trainLbfgs(pass, numSamples);
+        } else {
+            trainGradientDescent(pass, numSamples);
+        }
+    }
+
+    /**
+     * Fixed-step gradient descent
+     */
+    private void trainGradientDescent(LossPass pass, long numSamples) {
+        double[] w = weights.data();
+        double[] gradients = new double[w.length];
+
+        ConvergenceMonitor monitor = startMonitor(new TrainingRun("gradient descent",
+                "Cross-Entropy Loss", "Iteration", numSamples, maxIterations));
+        double[] bestWeights = monitor.usesValidation() ? new double[w.length] : null;
+        Optimizer.Updater updater = optimizer.start(w.length);
+        StopReason stop = StopReason.MAX_ITERATIONS;
+
+        // Gradient descent
+        for (int iter = 0; iter < maxIterations; iter++) {
+            // Compute gradients
+            double totalLoss = pass.run(gradients);
+
+            // Update weights
+            updater.update(w, gradients, numSamples);
+
+            double avgLoss = totalLoss / numSamples;
+            double gradientNorm = Math.sqrt(Matrix.dot(gradients, 0, gradients, 0, gradients.length)) / numSamples;
+            StopReason reason = monitor.check(avgLoss, gradientNorm, monitor.usesValidation() ? validationLoss() : Double.NaN);
+            if (monitor.isBestValidation()) {
+                System.arraycopy(w, 0, bestWeights, 0, w.length);
+            }
+            listener.iterationCompleted(iter, avgLoss, gradientNorm, monitor.samplesPerSecond(numSamples), monitor.elapsedNanos());
+            if (reason != null) {
+                stop = reason;
+                break;
+            }
+        }
+        finishTraining(monitor, stop, bestWeights);
+    }
+
+    /**
+     * L-BFGS on the mean cross-entropy, reusing the same gradient pass
+     *
+     * Every function evaluation is one full pass; an iteration usually needs one.
+     * If the line search can make no further progress the run ends as
+     * {@link StopReason#LOSS_CONVERGED}.
+     */
+    private void trainLbfgs(LossPass pass, long numSamples) {
+        double[] w = weights.data();
+        double[] point = w.clone();
+
+        ConvergenceMonitor monitor = startMonitor(new TrainingRun("L-BFGS",
+                "Cross-Entropy Loss", "Iteration", numSamples, maxIterations));
+        double[] bestWeights = monitor.usesValidation() ? new double[w.length] : null;
+        StopReason[] stop = {null};
+
+        // f(w) = mean loss, evaluated by loading the trial point into the model weights
+        Lbfgs.Objective objective = (trial, gradient) -> {
+            System.arraycopy(trial, 0, w, 0, w.length);
+            double totalLoss = pass.run(gradient);
+            for (int i = 0; i < gradient.length; i++) {
+                gradient[i] /= numSamples;
+            }
+            return totalLoss / numSamples;
+        };
+
+        int iterations = new Lbfgs(LBFGS_HISTORY).minimize(objective, point, maxIterations, (iter, current, loss, gradient) -> {
+            System.arraycopy(current, 0, w, 0, w.length);
+            double gradientNorm = Math.sqrt(Matrix.dot(gradient, 0, gradient, 0, gradient.length));
+            StopReason reason = monitor.check(loss, gradientNorm, monitor.usesValidation() ? validationLoss() : Double.NaN);
+            if (monitor.isBestValidation()) {
+                System.arraycopy(w, 0, bestWeights, 0, w.length);
+            }
+            listener.iterationCompleted(iter, loss, gradientNorm, monitor.samplesPerSecond(numSamples), monitor.elapsedNanos());
+            stop[0] = reason;
+            return reason != null;
+        });
+
+        System.arraycopy(point, 0, w, 0, w.length);
+        if (stop[0] == null) {
+            stop[0] = iterations < maxIterations ? StopReason.LOSS_CONVERGED : StopReason.MAX_ITERATIONS;
+        }
+        finishTraining(monitor, stop[0], bestWeights);
+    }
+
+    /**
+     * Newton's method (IRLS) for two classes
+     *
+     * Works on the logit difference β = w[:,1] - w[:,0], for which the softmax
+     * reduces to a sigmoid. Each iteration is one pass that accumulates the
+     * loss, the gradient Σ (p - y) z and the upper triangle of the Hessian
+     * Σ p (1 - p) z z^T with z = [1, x]; the step solves H Δ = g. The weights
+     * are written back symmetrically (w[:,0] = -β/2, w[:,1] = β/2), which gives
+     * the same probabilities as any other softmax parameterization of β.
+     */
+    private void trainNewton(Blocks data, long numSamples, int maxBlockRows) {
+        if (numClasses != 2) {
+            throw new IllegalStateException("Newton solver supports binary classification only");
+        }
+        double[] w = weights.data();
+        int p = weights.rows();
+        double[] beta = new double[p];
+        for (int i = 0; i < p; i++) {
+            beta[i] = w[i * 2 + 1] - w[i * 2];
+        }
+
+        // Per-chunk Hessian, gradient and loss, reduced in chunk order
+        int numChunks = executor.numChunks(maxBlockRows);
+        double[][] partialHessians = new double[numChunks][p * p];
+        double[][] partialGradients = new double[numChunks][p];
+        double[] partialLoss = new double[numChunks];
+        Matrix hessian = new Matrix(p, p);
+        Matrix gradient = new Matrix(p, 1);
+        double[] h = hessian.data();
+        double[] g = gradient.data();
+
+        ConvergenceMonitor monitor = startMonitor(new TrainingRun("Newton (IRLS)",
+                "Cross-Entropy Loss", "Iteration", numSamples, maxIterations));
+        double[] bestWeights = monitor.usesValidation() ? new double[w.length] : null;
+        StopReason stop = StopReason.MAX_ITERATIONS;
+        double previousLoss = Double.NaN;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            java.util.Arrays.fill(h, 0.0);
+            java.util.Arrays.fill(g, 0.0);
+            double[] totalLoss = {0.0};
+            data.forEach((x, y, rows) -> {
+                executor.forEachChunk(rows, (chunk, from, to) ->
+                        partialLoss[chunk] = accumulateNewton(x, y, from, to, beta,
+                                partialHessians[chunk], partialGradients[chunk]));
+                for (int c = 0; c < executor.numChunks(rows); c++) {
+                    Matrix.axpy(1.0, partialHessians[c], 0, h, 0, h.length);
+                    Matrix.axpy(1.0, partialGradients[c], 0, g, 0, p);
+                    totalLoss[0] += partialLoss[c];
+                }
+            });
+            for (int i = 0; i < p; i++) {
+                for (int j = 0; j < i; j++) {
+                    h[i * p + j] = h[j * p + i];
+                }
+            }
+
+            double[] step = solveNewtonStep(hessian, gradient).data();
+            double stepNorm = 0.0;
+            double betaNorm = 0.0;
+            for (int i = 0; i < p; i++) {
+                beta[i] -= step[i];
+                stepNorm = Math.max(stepNorm, Math.abs(step[i]));
+                betaNorm = Math.max(betaNorm, Math.abs(beta[i]));
+            }
+            for (int i = 0; i < p; i++) {
+                w[i * 2] = -0.5 * beta[i];
+                w[i * 2 + 1] = 0.5 * beta[i];
+            }
+
+            // Loss and gradient belong to the weights before this step
+            double avgLoss = totalLoss[0] / numSamples;
+            double gradientNorm = Math.sqrt(Matrix.dot(g, 0, g, 0, p)) / numSamples;
+            StopReason reason = monitor.check(avgLoss, gradientNorm, monitor.usesValidation() ? validationLoss() : Double.NaN);
+            if (monitor.isBestValidation()) {
+                System.arraycopy(w, 0, bestWeights, 0, w.length);
+            }
+            listener.iterationCompleted(iter, avgLoss, gradientNorm, monitor.samplesPerSecond(numSamples), monitor.elapsedNanos());
+            if (reason == null && (stepNorm <= NEWTON_TOLERANCE * (1.0 + betaNorm)
+                    || Math.abs(previousLoss - avgLoss) <= NEWTON_TOLERANCE * avgLoss)) {
+                reason = StopReason.LOSS_CONVERGED;
+            }
+            if (reason != null) {
+                stop = reason;
+                break;
+            }
+            previousLoss = avgLoss;
+        }
+        finishTraining(monitor, stop, bestWeights);
+    }
+
+    /**
+     * Solve H Δ = g, adding a small ridge to the diagonal whenever H is too
+     * ill-conditioned to factor (e.g. constant features or separable classes)
+     */
+    private static Matrix solveNewtonStep(Matrix hessian, Matrix gradient) {
+        int p = hessian.rows();
+        double scale = 0.0;
+        for (int i = 0; i < p; i++) {
+            scale = Math.max(scale, hessian.get(i, i));
+        }
+        double ridge = 1e-8 * Math.max(scale, 1e-12);
+        while (true) {
+            try {
+                return new CholeskySolver().solve(hessian, gradient);
+            } catch (RuntimeException e) {
+                if (ridge > scale) {
+                    throw e;
+                }
+                for (int i = 0; i < p; i++) {
+                    hessian.add(i, i, ridge);
                 }
+                ridge *= 10.0;
+            }
+        }
+    }
+
+    /**
+     * Loss, gradient and upper-triangular Hessian of the binary logistic loss
+     * in β over the rows [from, to)
+     * @param hessian Hessian buffer [numFeatures + 1][numFeatures + 1], overwritten
+     * @param gradient Gradient buffer [numFeatures + 1], overwritten
+     * @return Summed cross-entropy loss over the rows
+     */
+    private double accumulateNewton(double[] x, double[] y, int from, int to, double[] beta,
+                                    double[] hessian, double[] gradient) {
+        int numFeatures = beta.length - 1;
+        int p = beta.length;
+        java.util.Arrays.fill(hessian, 0.0);
+        java.util.Arrays.fill(gradient, 0.0);
 
-                // Feature gradients
-                for (int f = 0; f < numFeatures; f++) {
-                    for (int j = 0; j < numClasses; j++) {
-                        gradients[f + 1][j] += error[j] * X[i][f];
-                    }
+        double totalLoss = 0.0;
+        for (int r = from; r < to; r++) {
+            int xRow = r * numFeatures;
+            double t = beta[0] + Matrix.dot(beta, 1, x, xRow, numFeatures);
+            double probability = 1.0 / (1.0 + Math.exp(-t));
+            boolean positive = y[r * 2 + 1] == 1.0;
+            totalLoss -= Math.log((positive ? probability : 1.0 - probability) + 1e-15);
+
+            double error = probability - (positive ? 1.0 : 0.0);
+            double weight = probability * (1.0 - probability);
+
+            // Bias row of z z^T, then the upper triangle of the feature block
+            gradient[0] += error;
+            hessian[0] += weight;
+            Matrix.axpy(weight, x, xRow, hessian, 1, numFeatures);
+            Matrix.axpy(error, x, xRow, gradient, 1, numFeatures);
+            for (int i = 0; i < numFeatures; i++) {
+                double wx = weight * x[xRow + i];
+                if (wx != 0.0) {
+                    Matrix.axpy(wx, x, xRow + i, hessian, (i + 1) * p + i + 1, numFeatures - i);
                 }
             }
+        }
+        return totalLoss;
+    }
 
-            // Update weights
-            for (int i = 0; i < weights.length; i++) {
-                for (int j = 0; j < weights[i].length; j++) {
-                    weights[i][j] -= learningRate * gradients[i][j] / numSamples;
+    /**
+     * Announce a training run and start monitoring it against the stopping criteria
+     */
+    private ConvergenceMonitor startMonitor(TrainingRun run) {
+        if (stoppingCriteria.usesValidation() && validationX == null) {
+            throw new IllegalStateException("Validation patience needs validation data (setValidationData)");
+        }
+        listener.trainingStarted(run);
+        return stoppingCriteria.start();
+    }
+
+    /**
+     * Record the training summary, restore the best validation weights if
+     * validation patience ended the run, and report the end of the run
+     */
+    private void finishTraining(ConvergenceMonitor monitor, StopReason stop, double[] bestWeights) {
+        summary = monitor.finish(stop);
+        if (stop == StopReason.VALIDATION_PATIENCE) {
+            System.arraycopy(bestWeights, 0, weights.data(), 0, bestWeights.length);
+        }
+        listener.trainingFinished(summary);
+    }
+
+    /**
+     * Mean cross-entropy of the current weights on the validation set
+     */
+    private double validationLoss() {
+        double[] probabilities = new double[numClasses];
+        double totalLoss = 0.0;
+        for (int i = 0; i < validationX.length; i++) {
+            probabilitiesRow(validationX[i], 0, probabilities, 0);
+            for (int j = 0; j < numClasses; j++) {
+                if (validationY[i][j] == 1.0) {
+                    totalLoss -= Math.log(probabilities[j] + 1e-15);
+                }
+            }
+        }
+        return totalLoss / validationX.length;
+    }
+
+    /**
+     * Allocate the weight matrix and initialize it randomly (small values)
+     * @return Backing buffer of the new weights
+     */
+    private double[] initializeWeights(int numFeatures) {
+        weights = new Matrix(numFeatures + 1, numClasses);
+        updates = 0;
+        double[] w = weights.data();
+        java.util.Random rand = new java.util.Random(42);
+        for (int i = 0; i < w.length; i++) {
+            w[i] = (rand.nextDouble() - 0.5) * 0.01;
+        }
+        return w;
+    }
+
+    /**
+     * Cross-entropy loss and gradient (not yet divided by N) over the rows [from, to)
+     * @param x Packed features [numSamples * numFeatures]
+     * @param y Packed one-hot labels [numSamples * numClasses]
+     * @param gradients Gradient buffer [numFeatures + 1][numClasses], overwritten
+     * @param probabilities Scratch buffer [numClasses]
+     * @return Summed cross-entropy loss over the rows
+     */
+    private double accumulateGradient(double[] x, double[] y, int from, int to,
+                                      double[] gradients, double[] probabilities) {
+        int numFeatures = weights.rows() - 1;
+        java.util.Arrays.fill(gradients, 0.0);
+
+        double totalLoss = 0.0;
+        for (int i = from; i < to; i++) {
+            totalLoss += accumulateRow(x, i * numFeatures, y, i * numClasses, gradients, probabilities);
+        }
+        return totalLoss;
+    }
+
+    /**
+     * Single-precision variant of {@link #accumulateGradient(double[], double[], int, int, double[], double[])}
+     *
+     * Works on transposed weights and gradients [numClasses][numFeatures + 1], so
+     * every inner loop runs over the features of one row: a float dot product
+     * per logit and a widening axpy into the double gradient. The softmax and
+     * the loss are computed in double.
+     * @param wt Transposed single-precision weights
+     * @param gradients Gradient buffer [numFeatures + 1][numClasses], overwritten
+     * @param probabilities Scratch buffer [numClasses]
+     * @param gt Scratch buffer for the transposed gradient
+     */
+    private double accumulateGradient(float[] x, float[] y, float[] wt, int from, int to,
+                                      double[] gradients, double[] probabilities, double[] gt) {
+        int numFeatures = weights.rows() - 1;
+        int p = numFeatures + 1;
+        java.util.Arrays.fill(gt, 0.0);
+
+        double totalLoss = 0.0;
+        for (int i = from; i < to; i++) {
+            int xRow = i * numFeatures;
+            int yRow = i * numClasses;
+
+            // Forward pass
+            for (int j = 0; j < numClasses; j++) {
+                probabilities[j] = wt[j * p] + Matrix.dot(wt, j * p + 1, x, xRow, numFeatures);
+            }
+            softmax(probabilities, 0, numClasses);
+
+            // Loss and error (predicted - actual)
+            for (int j = 0; j < numClasses; j++) {
+                if (y[yRow + j] == 1.0f) {
+                    totalLoss -= Math.log(probabilities[j] + 1e-15);
                 }
+                probabilities[j] -= y[yRow + j];
+            }
+
+            // Accumulate gradients
+            for (int j = 0; j < numClasses; j++) {
+                gt[j * p] += probabilities[j];
+                Matrix.axpy(probabilities[j], x, xRow, gt, j * p + 1, numFeatures);
+            }
+        }
+
+        // Back to the layout of the weights
+        for (int f = 0; f < p; f++) {
+            for (int j = 0; j < numClasses; j++) {
+                gradients[f * numClasses + j] = gt[j * p + f];
+            }
+        }
+        return totalLoss;
+    }
+
+    /**
+     * Add one row's contribution to the cross-entropy gradient
+     * @param x Buffer holding the features
+     * @param xRow Index of the first feature of the row in x
+     * @param y Buffer holding the one-hot labels
+     * @param yRow Index of the first label of the row in y
+     * @param gradients Gradient buffer [numFeatures + 1][numClasses], accumulated into
+     * @param probabilities Scratch buffer [numClasses]
+     * @return Cross-entropy loss of the row
+     */
+    private double accumulateRow(double[] x, int xRow, double[] y, int yRow,
+                                 double[] gradients, double[] probabilities) {
+        int numFeatures = weights.rows() - 1;
+        double loss = rowError(x, xRow, y, yRow, probabilities);
+
+        // Accumulate gradients
+        // Bias gradient
+        Matrix.axpy(1.0, probabilities, 0, gradients, 0, numClasses);
+
+        // Feature gradients
+        for (int f = 0; f < numFeatures; f++) {
+            Matrix.axpy(x[xRow + f], probabilities, 0, gradients, (f + 1) * numClasses, numClasses);
+        }
+        return loss;
+    }
+
+    /**
+     * Add one sparse row's contribution to the cross-entropy gradient, touching
+     * only the weight rows of its stored entries
+     * @param row Index of the row in X and in the packed labels
+     * @param gradients Gradient buffer [numFeatures + 1][numClasses], accumulated into
+     * @param probabilities Scratch buffer [numClasses]
+     * @return Cross-entropy loss of the row
+     */
+    private double accumulateRow(CsrMatrix X, int row, double[] y, double[] gradients, double[] probabilities) {
+        int yRow = row * numClasses;
+        int[] columns = X.columnIndices();
+        double[] values = X.values();
+
+        // Forward pass
+        probabilitiesRow(X, row, probabilities, 0);
+
+        // Loss and error (predicted - actual)
+        double loss = 0.0;
+        for (int j = 0; j < numClasses; j++) {
+            if (y[yRow + j] == 1.0) {
+                loss -= Math.log(probabilities[j] + 1e-15);
             }
+            probabilities[j] -= y[yRow + j];
+        }
+
+        // Accumulate gradients: bias, then the rows of the non-zero features
+        Matrix.axpy(1.0, probabilities, 0, gradients, 0, numClasses);
+        for (int k = X.rowStart(row); k < X.rowEnd(row); k++) {
+            Matrix.axpy(values[k], probabilities, 0, gradients, (columns[k] + 1) * numClasses, numClasses);
+        }
+        return loss;
+    }
+
+    /**
+     * Forward pass and output error (predicted - actual) of one row
+     * @param probabilities Receives the error [numClasses]
+     * @return Cross-entropy loss of the row
+     */
+    private double rowError(double[] x, int xRow, double[] y, int yRow, double[] probabilities) {
+        // Forward pass (get probabilities)
+        probabilitiesRow(x, xRow, probabilities, 0);
 
-            // Print progress every 200 iterations
-            if (iter % 200 == 0 || iter == maxIterations - 1) {
-                double avgLoss = totalLoss / numSamples;
-                System.out.printf("Iteration %d: Cross-Entropy Loss = %.6f%n", iter, avgLoss);
+        // Compute cross-entropy loss
+        double loss = 0.0;
+        for (int j = 0; j < numClasses; j++) {
+            if (y[yRow + j] == 1.0) {
+                loss -= Math.log(probabilities[j] + 1e-15); // add small epsilon to avoid log(0)
             }
         }
 
+        // Compute gradients (derivative of cross-entropy with softmax)
+        // Gradient is simply (predicted - actual)
+        for (int j = 0; j < numClasses; j++) {
+            probabilities[j] -= y[yRow + j];
+        }
+        return loss;
+    }
+
+    // ==================== Online training ====================
+
+    /**
+     * Apply one SGD update for a single event on the current weights
+     *
+     * Costs O(numFeatures · numClasses) and allocates nothing after the first
+     * call. On an untrained model the weights are initialized from the
+     * dimensions of this event; on a model trained with {@link #train} the
+     * updates continue from the learned weights.
+     * @param x Features [numFeatures]
+     * @param y One-hot label [numClasses]
+     * @return Cross-entropy loss of the event before the update
+     */
+    public double partialFit(double[] x, double[] y) {
+        ensureOnlineState(x.length, y.length);
+        return partialFit(x, 0, y, 0);
+    }
+
+    /**
+     * Apply one SGD update for a single event stored in flat buffers
+     *
+     * The model dimensions must already be known (from {@link #train} or an
+     * earlier update with separate arrays).
+     * @param x Buffer holding the features
+     * @param xOff Index of the first feature in x
+     * @param y Buffer holding the one-hot label
+     * @param yOff Index of the first label in y
+     * @return Cross-entropy loss of the event before the update
+     */
+    public double partialFit(double[] x, int xOff, double[] y, int yOff) {
+        requireOnlineState();
+        int numFeatures = weights.rows() - 1;
+        double[] w = weights.data();
+        double[] error = onlineProbabilities;
+
+        double loss = rowError(x, xOff, y, yOff, error);
+
+        // w -= η · [1, x] ⊗ (p - y), applied directly without a gradient buffer
+        double rate = schedule.rate(updates++);
+        Matrix.axpy(-rate, error, 0, w, 0, numClasses);
+        for (int f = 0; f < numFeatures; f++) {
+            Matrix.axpy(-rate * x[xOff + f], error, 0, w, (f + 1) * numClasses, numClasses);
+        }
         trained = true;
+        return loss;
+    }
+
+    /**
+     * Apply one SGD update with the gradient averaged over a mini-batch of packed events
+     *
+     * The model dimensions must already be known (from {@link #train} or an
+     * earlier update with separate arrays).
+     * @param x Row-major features [rows * numFeatures]
+     * @param y Row-major one-hot labels [rows * numClasses]
+     * @param rows Number of events in the batch
+     * @return Mean cross-entropy loss of the batch before the update
+     */
+    public double partialFit(double[] x, double[] y, int rows) {
+        if (rows <= 0) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        requireOnlineState();
+        int numFeatures = weights.rows() - 1;
+        java.util.Arrays.fill(onlineGradients, 0.0);
+        double totalLoss = 0.0;
+        for (int i = 0; i < rows; i++) {
+            totalLoss += accumulateRow(x, i * numFeatures, y, i * numClasses, onlineGradients, onlineProbabilities);
+        }
+        applyOnlineGradients(rows);
+        return totalLoss / rows;
+    }
+
+    /**
+     * Apply one SGD update with the gradient averaged over a mini-batch of events
+     * @param X Features [rows][numFeatures]
+     * @param Y One-hot labels [rows][numClasses]
+     * @return Mean cross-entropy loss of the batch before the update
+     */
+    public double partialFit(double[][] X, double[][] Y) {
+        if (X.length == 0 || X.length != Y.length) {
+            throw new IllegalArgumentException("X and Y must be non-empty and have same number of samples");
+        }
+        ensureOnlineState(X[0].length, Y[0].length);
+        java.util.Arrays.fill(onlineGradients, 0.0);
+        double totalLoss = 0.0;
+        for (int i = 0; i < X.length; i++) {
+            totalLoss += accumulateRow(X[i], 0, Y[i], 0, onlineGradients, onlineProbabilities);
+        }
+        applyOnlineGradients(X.length);
+        return totalLoss / X.length;
+    }
+
+    private void applyOnlineGradients(int rows) {
+        double rate = schedule.rate(updates++);
+        Matrix.axpy(-rate / rows, onlineGradients, 0, weights.data(), 0, onlineGradients.length);
+        trained = true;
+    }
+
+    /**
+     * Initialize the weights on the first online update and allocate the reusable buffers
+     */
+    private void ensureOnlineState(int numFeatures, int numClasses) {
+        if (weights == null) {
+            this.numClasses = numClasses;
+            initializeWeights(numFeatures);
+        } else if (numFeatures != weights.rows() - 1 || numClasses != this.numClasses) {
+            throw new IllegalArgumentException("Event does not match the model dimensions");
+        }
+        requireOnlineState();
+    }
+
+    private void requireOnlineState() {
+        if (weights == null) {
+            throw new IllegalStateException("Model dimensions unknown: train first or update with separate arrays");
+        }
+        if (onlineGradients == null || onlineGradients.length != weights.data().length) {
+            onlineGradients = new double[weights.data().length];
+            onlineProbabilities = new double[numClasses];
+        }
+    }
+
+    /**
+     * Learning rate used by online updates (constant learningRate by default)
+     */
+    public void setLearningRateSchedule(LearningRateSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Number of online updates applied since the weights were initialized
+     */
+    public long getUpdateCount() {
+        return updates;
     }
 
     /**
@@ -115,6 +918,123 @@ public class LogisticRegression {
         return predictProbabilities(x);
     }
 
+    /**
+     * Predict class probabilities into a caller-owned buffer (no allocation)
+     * @param x Input features [numFeatures]
+     * @param out Receives the class probabilities [numClasses]
+     */
+    public void predictInto(double[] x, double[] out) {
+        predictInto(x, 0, out, 0);
+    }
+
+    /**
+     * Predict class probabilities for one row of a flat buffer into another flat buffer (no allocation)
+     * @param x Buffer holding the input row
+     * @param xOff Index of the first feature of the row in x
+     * @param out Buffer receiving the probabilities
+     * @param outOff Index where the numClasses probabilities are written
+     */
+    public void predictInto(double[] x, int xOff, double[] out, int outOff) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        probabilitiesRow(x, xOff, out, outOff);
+    }
+
+    /**
+     * Predict class probabilities for a block of rows
+     * @param features Row-major features [numRows * numFeatures]
+     * @param numRows Number of rows in the block
+     * @return Row-major probabilities [numRows * numClasses]
+     */
+    public double[] predictBatch(double[] features, int numRows) {
+        double[] out = new double[numRows * numClasses];
+        predictBatch(features, numRows, out);
+        return out;
+    }
+
+    /**
+     * Predict class probabilities for a block of rows into a caller-owned buffer
+     *
+     * Logits are computed as one matrix product Z = 1·w₀ + X·W against a
+     * transposed copy of W (four rows at a time), then softmax is applied row
+     * by row in place, with row chunks spread over the model's executor.
+     * @param features Row-major features [numRows * numFeatures]
+     * @param numRows Number of rows in the block
+     * @param out Receives row-major probabilities [numRows * numClasses]
+     */
+    public void predictBatch(double[] features, int numRows, double[] out) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        int numFeatures = weights.rows() - 1;
+        Matrix X = Matrix.wrap(features, numRows, numFeatures);
+        Matrix Z = Matrix.wrap(out, numRows, numClasses);
+        Matrix Wt = weights.rowRange(1, numFeatures + 1).transpose();  // one contiguous row per output
+        double[] w = weights.data();
+
+        executor.forEachChunk(numRows, (chunk, from, to) -> {
+            // Initialize with bias
+            for (int i = from; i < to; i++) {
+                System.arraycopy(w, 0, out, i * numClasses, numClasses);
+            }
+            // Add weighted features
+            Matrix.multiplyTransposedAdd(X.rowRange(from, to), Wt, Z.rowRange(from, to));
+            // Apply softmax
+            for (int i = from; i < to; i++) {
+                softmax(out, i * numClasses, numClasses);
+            }
+        });
+    }
+
+    /**
+     * Predict class probabilities for one sparse row into a flat buffer (no allocation)
+     * @param X Sparse features
+     * @param row Index of the row in X
+     * @param out Buffer receiving the probabilities
+     * @param outOff Index where the numClasses probabilities are written
+     */
+    public void predictInto(CsrMatrix X, int row, double[] out, int outOff) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        probabilitiesRow(X, row, out, outOff);
+    }
+
+    /**
+     * Predict class probabilities of a single sparse row given as index / value
+     * pairs (no allocation), e.g. from a {@link ch.innuvation.data.FeatureHasher}
+     * @param indices Feature indices of the row's entries
+     * @param values Values of the row's entries
+     * @param count Number of entries
+     * @param out Receives the class probabilities [numClasses]
+     */
+    public void predictInto(int[] indices, double[] values, int count, double[] out) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        probabilitiesRow(indices, values, 0, count, out, 0);
+    }
+
+    /**
+     * Predict class probabilities for all rows of a sparse matrix, in
+     * O(nnz · numClasses) with row chunks spread over the model's executor
+     * @param X Sparse features
+     * @return Row-major probabilities [numRows * numClasses]
+     */
+    public double[] predictBatch(CsrMatrix X) {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before prediction");
+        }
+        double[] out = new double[X.numRows() * numClasses];
+        executor.forEachChunk(X.numRows(), (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                probabilitiesRow(X, i, out, i * numClasses);
+            }
+        });
+        return out;
+    }
+
     /**
      * Predict the most likely class
      * @param x Input features [numFeatures]
@@ -135,60 +1055,190 @@ public class LogisticRegression {
      * Internal method to compute probabilities (works before training)
      */
     private double[] predictProbabilities(double[] x) {
-        // Compute logits (linear combination)
-        double[] logits = new double[numClasses];
+        double[] probs = new double[numClasses];
+        probabilitiesRow(x, 0, probs, 0);
+        return probs;
+    }
+
+    /**
+     * Compute class probabilities for one row of a buffer into another buffer
+     * @param x Buffer holding the input row
+     * @param xOff Index of the first feature in x
+     * @param out Buffer receiving the probabilities
+     * @param outOff Index of the first class in out
+     */
+    private void probabilitiesRow(double[] x, int xOff, double[] out, int outOff) {
+        int numFeatures = weights.rows() - 1;
+        double[] w = weights.data();
 
+        // Compute logits (linear combination)
         // Initialize with bias
-        for (int j = 0; j < numClasses; j++) {
-            logits[j] = weights[0][j];
-        }
+        System.arraycopy(w, 0, out, outOff, numClasses);
 
         // Add weighted features
-        for (int i = 0; i < x.length; i++) {
-            for (int j = 0; j < numClasses; j++) {
-                logits[j] += weights[i + 1][j] * x[i];
-            }
+        for (int i = 0; i < numFeatures; i++) {
+            Matrix.axpy(x[xOff + i], w, (i + 1) * numClasses, out, outOff, numClasses);
         }
 
         // Apply softmax (or sigmoid for binary case)
-        return softmax(logits);
+        softmax(out, outOff, numClasses);
+    }
+
+    private void probabilitiesRow(CsrMatrix X, int row, double[] out, int outOff) {
+        probabilitiesRow(X.columnIndices(), X.values(), X.rowStart(row), X.rowEnd(row), out, outOff);
+    }
+
+    /**
+     * Sparse variant of {@link #probabilitiesRow(double[], int, double[], int)} over
+     * the entries [from, to) of parallel column / value buffers
+     */
+    private void probabilitiesRow(int[] columns, double[] values, int from, int to, double[] out, int outOff) {
+        double[] w = weights.data();
+
+        // Initialize with bias
+        System.arraycopy(w, 0, out, outOff, numClasses);
+
+        // Add weighted non-zero features
+        for (int k = from; k < to; k++) {
+            Matrix.axpy(values[k], w, (columns[k] + 1) * numClasses, out, outOff, numClasses);
+        }
+
+        softmax(out, outOff, numClasses);
     }
 
     /**
-     * Softmax activation function
+     * Softmax activation function, in place
      * Converts logits to probabilities that sum to 1.0
      */
-    private double[] softmax(double[] logits) {
-        // Find max for numerical stability
-        double max = logits[0];
-        for (int i = 1; i < logits.length; i++) {
-            if (logits[i] > max) {
-                max = logits[i];
-            }
+    private static void softmax(double[] v, int off, int n) {
+        KERNELS.softmax(v, off, n);
+    }
+
+    /**
+     * Choose the optimization method of {@link #train} (default: gradient descent)
+     */
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Spread the per-iteration gradient pass (and predictBatch) over several threads
+     *
+     * Rows are split into fixed chunks whose partial gradients and losses are
+     * summed in chunk order, so training is bit-identical for any thread count.
+     * @param executor e.g. {@link ChunkedExecutor#common()} or a dedicated ForkJoinPool
+     */
+    public void setExecutor(ChunkedExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Choose how gradient descent ({@link Solver#GRADIENT_DESCENT}) turns gradients into weight updates
+     * @param optimizer e.g. {@link Optimizer#adam(double)} (default: plain
+     *                  {@link Optimizer#sgd(double)} with the constructor's learning rate)
+     */
+    public void setOptimizer(Optimizer optimizer) {
+        this.optimizer = optimizer;
+    }
+
+    /**
+     * Store in-heap training data in single or double precision for gradient
+     * descent and L-BFGS
+     *
+     * Applies to {@link #train(double[][], double[][])}; {@link RowSource} data
+     * keeps its own storage format, and the Newton solver needs double.
+     * @param precision Precision of features, labels and the forward pass (default: double)
+     */
+    public void setPrecision(Precision precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * End training early, e.g. once the loss has flattened
+     * @param criteria Stopping criteria (default: run all iterations)
+     */
+    public void setStoppingCriteria(StoppingCriteria criteria) {
+        this.stoppingCriteria = criteria;
+    }
+
+    /**
+     * Held-out rows monitored by {@link StoppingCriteria#validationPatience(int)}
+     * @param X Validation features [numSamples][numFeatures]
+     * @param Y Validation labels (one-hot encoded) [numSamples][numClasses]
+     */
+    public void setValidationData(double[][] X, double[][] Y) {
+        if (X.length == 0 || X.length != Y.length) {
+            throw new IllegalArgumentException("Validation X and Y must be non-empty and have same number of samples");
         }
+        this.validationX = X;
+        this.validationY = Y;
+    }
+
+    /**
+     * Receive progress, loss and timing events during training
+     * @param listener e.g. a {@link ch.innuvation.training.ConsoleTrainingListener}
+     *                 (default: {@link TrainingListener#SILENT}, no output)
+     */
+    public void setTrainingListener(TrainingListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Why and when the last call to {@link #train} stopped
+     * @return Summary of the last training run, or null if the model was never trained
+     */
+    public TrainingSummary getTrainingSummary() {
+        return summary;
+    }
 
-        // Compute exp(logit - max) and sum
-        double[] probs = new double[logits.length];
-        double sum = 0.0;
-        for (int i = 0; i < logits.length; i++) {
-            probs[i] = Math.exp(logits[i] - max);
-            sum += probs[i];
+    /**
+     * Freeze the current weights into a {@link Predictor} that computes the same
+     * class probabilities as {@link #predictInto(double[], int, double[], int)}, with the
+     * weights compiled into the code for small models (see {@link PredictorCompiler})
+     */
+    public Predictor compile() {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before compiling");
         }
+        Matrix packed = weights.copy();
+        return PredictorCompiler.compile(packed.data(), packed.rows(), packed.cols(), true);
+    }
 
-        // Normalize
-        for (int i = 0; i < probs.length; i++) {
-            probs[i] /= sum;
+    /**
+     * Save the learned weights to a binary {@link ModelFile}
+     */
+    public void save(Path path) throws IOException {
+        if (!trained) {
+            throw new IllegalStateException("Model must be trained before saving");
         }
+        Matrix packed = weights.copy();
+        ModelFile.write(path, ModelFile.LOGISTIC_REGRESSION, packed.data(), packed.rows(), packed.cols());
+    }
 
-        return probs;
+    /**
+     * Load a model saved with {@link #save(Path)}, ready for prediction
+     *
+     * Training settings are not stored; the loaded model uses gradient descent
+     * with learning rate 0 until configured otherwise.
+     */
+    public static LogisticRegression load(Path path) throws IOException {
+        ModelFile file = ModelFile.read(path);
+        if (file.modelType() != ModelFile.LOGISTIC_REGRESSION) {
+            throw new IOException("Not a logistic regression model (type " + file.modelType() + ")");
+        }
+        LogisticRegression model = new LogisticRegression(0.0, 0);
+        model.weights = Matrix.wrap(file.weights(), file.rows(), file.cols());
+        model.numClasses = file.cols();
+        model.trained = true;
+        return model;
     }
 
     /**
      * Get the learned weights (for inspection/debugging)
-     * @return weights[numFeatures + 1][numClasses]
+     * @return copy of weights[numFeatures + 1][numClasses]
      */
     public double[][] getWeights() {
-        return weights;
+        return weights == null ? null : weights.toArray();
     }
 
     /**
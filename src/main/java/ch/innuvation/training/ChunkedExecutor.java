@@ -0,0 +1,122 @@
+package ch.innuvation.training;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a per-row computation over fixed-size chunks of the training data,
+ * optionally spread across a {@link ForkJoinPool}
+ *
+ * Chunk boundaries depend only on the number of rows and the chunk size, never
+ * on the number of threads. Trainers keep one partial result per chunk and
+ * reduce the partials in chunk order, so the outcome is the same whether the
+ * chunks ran on one thread or on thirty-two.
+ */
+public final class ChunkedExecutor {
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private static final ChunkedExecutor SERIAL = new ChunkedExecutor(null, DEFAULT_CHUNK_SIZE);
+
+    private final ForkJoinPool pool;  // null: run on the calling thread
+    private final int chunkSize;
+
+    /**
+     * Run chunks on the given pool with the default chunk size
+     * @param pool Pool to run on (not shut down by this class)
+     */
+    public ChunkedExecutor(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Run chunks on the given pool
+     * @param pool Pool to run on (not shut down by this class), or null to run serially
+     * @param chunkSize Number of rows per chunk
+     */
+    public ChunkedExecutor(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Run every chunk on the calling thread
+     */
+    public static ChunkedExecutor serial() {
+        return SERIAL;
+    }
+
+    /**
+     * Run chunks on the JVM-wide common pool
+     */
+    public static ChunkedExecutor common() {
+        return new ChunkedExecutor(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Number of chunks the given number of rows is split into
+     */
+    public int numChunks(int numRows) {
+        return (numRows + chunkSize - 1) / chunkSize;
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Invoke body once per chunk and wait until all chunks are done
+     * @param numRows Total number of rows
+     * @param body Work for one chunk, given its index and row range [from, to)
+     */
+    public void forEachChunk(int numRows, ChunkBody body) {
+        int numChunks = numChunks(numRows);
+        if (pool == null || numChunks <= 1) {
+            for (int c = 0; c < numChunks; c++) {
+                body.run(c, c * chunkSize, Math.min((c + 1) * chunkSize, numRows));
+            }
+        } else {
+            pool.invoke(new ChunkTask(body, numRows, 0, numChunks));
+        }
+    }
+
+    /**
+     * Work performed on one chunk of rows
+     */
+    @FunctionalInterface
+    public interface ChunkBody {
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * Splits a range of chunk indices in halves until a single chunk remains
+     */
+    @SuppressWarnings("serial")  // never serialized
+    private final class ChunkTask extends RecursiveAction {
+        private final ChunkBody body;
+        private final int numRows;
+        private final int firstChunk;
+        private final int lastChunk;
+
+        ChunkTask(ChunkBody body, int numRows, int firstChunk, int lastChunk) {
+            this.body = body;
+            this.numRows = numRows;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                int from = firstChunk * chunkSize;
+                body.run(firstChunk, from, Math.min(from + chunkSize, numRows));
+                return;
+            }
+            int mid = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new ChunkTask(body, numRows, firstChunk, mid),
+                      new ChunkTask(body, numRows, mid, lastChunk));
+        }
+    }
+}
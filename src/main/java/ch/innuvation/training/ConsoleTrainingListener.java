@@ -0,0 +1,100 @@
+package ch.innuvation.training;
+
+/**
+ * Prints training progress to System.out
+ *
+ * Prints the loss (and the parameters, if the trainer reports them) every
+ * {@code interval} iterations and on the last one,
+ * phase timings of closed-form fits, and a line when training stops early.
+ * Keeps per-run state, so use one instance per concurrently training model.
+ */
+public class ConsoleTrainingListener implements TrainingListener {
+    private final int interval;
+    private TrainingRun run;
+    private int lastIteration;
+    private double lastLoss;
+    private double[] lastParameters;
+    private boolean lastPrinted;
+
+    /**
+     * Print every 200 iterations
+     */
+    public ConsoleTrainingListener() {
+        this(200);
+    }
+
+    /**
+     * @param interval Print every interval-th iteration
+     */
+    public ConsoleTrainingListener(int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.interval = interval;
+    }
+
+    @Override
+    public void trainingStarted(TrainingRun run) {
+        this.run = run;
+        this.lastPrinted = true;
+        this.lastParameters = null;
+        System.out.println("Training using " + run.method() + "...");
+    }
+
+    @Override
+    public void iterationCompleted(int iteration, double loss, double gradientNorm,
+                                   double samplesPerSecond, long elapsedNanos) {
+        iterationCompleted(iteration, loss, gradientNorm, samplesPerSecond, elapsedNanos, null);
+    }
+
+    @Override
+    public void iterationCompleted(int iteration, double loss, double gradientNorm,
+                                   double samplesPerSecond, long elapsedNanos, double[] parameters) {
+        lastIteration = iteration;
+        lastLoss = loss;
+        if (parameters != null) {
+            if (lastParameters == null) {
+                lastParameters = new double[parameters.length];
+            }
+            System.arraycopy(parameters, 0, lastParameters, 0, parameters.length);
+        }
+        lastPrinted = iteration % interval == 0 || iteration == run.maxIterations() - 1;
+        if (lastPrinted) {
+            print(iteration, loss);
+        }
+    }
+
+    @Override
+    public void phaseCompleted(String phase, long elapsedNanos) {
+        System.out.printf("%s completed in %.1f ms%n", phase, elapsedNanos / 1e6);
+    }
+
+    @Override
+    public void trainingFinished(TrainingSummary summary) {
+        switch (summary.reason()) {
+            case CLOSED_FORM:
+                System.out.printf("Final %s = %.6f%n", run.lossName(), summary.finalLoss());
+                break;
+            case MAX_ITERATIONS:
+                break;
+            default:
+                if (!lastPrinted) {
+                    print(lastIteration, lastLoss);
+                }
+                System.out.println(summary);
+        }
+    }
+
+    private void print(int iteration, double loss) {
+        StringBuilder line = new StringBuilder(String.format("%s %d: %s = %.6f",
+                run.stepName(), iteration, run.lossName(), loss));
+        if (lastParameters != null) {
+            String[] names = run.parameterNames();
+            for (int i = 0; i < lastParameters.length; i++) {
+                String name = i < names.length ? names[i] : "p" + i;
+                line.append(String.format(", %s=%.3f", name, lastParameters[i]));
+            }
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,115 @@
+package ch.innuvation.training;
+
+/**
+ * Tracks one training run against its {@link StoppingCriteria}
+ *
+ * The trainer reports every iteration through {@link #check}; a non-null
+ * result means it should stop. When a validation loss is monitored,
+ * {@link #isBestValidation()} tells the trainer to snapshot its weights so
+ * the best ones can be restored at the end.
+ */
+public final class ConvergenceMonitor {
+    private final double minRelativeImprovement;
+    private final double minGradientNorm;
+    private final long timeBudgetNanos;
+    private final int validationPatience;
+    private final long startNanos;
+    private long lastCheckNanos;
+    private long lastIterationNanos;
+
+    private int iterations;
+    private double previousLoss = Double.NaN;
+    private double lastLoss = Double.NaN;
+    private double bestValidationLoss = Double.POSITIVE_INFINITY;
+    private int bestIteration = -1;
+    private boolean bestValidation;
+
+    ConvergenceMonitor(double minRelativeImprovement, double minGradientNorm, long timeBudgetNanos,
+                       int validationPatience) {
+        this.minRelativeImprovement = minRelativeImprovement;
+        this.minGradientNorm = minGradientNorm;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.validationPatience = validationPatience;
+        this.startNanos = System.nanoTime();
+        this.lastCheckNanos = startNanos;
+    }
+
+    /**
+     * Whether a validation loss must be passed to {@link #check}
+     */
+    public boolean usesValidation() {
+        return validationPatience > 0;
+    }
+
+    /**
+     * Record one finished iteration
+     * @param loss Training loss of the iteration
+     * @param gradientNorm L2 norm of the mean gradient, or NaN if not available
+     * @param validationLoss Loss on the validation set, or NaN if not monitored
+     * @return Reason to stop now, or null to continue
+     */
+    public StopReason check(double loss, double gradientNorm, double validationLoss) {
+        long now = System.nanoTime();
+        lastIterationNanos = now - lastCheckNanos;
+        lastCheckNanos = now;
+        iterations++;
+        previousLoss = lastLoss;
+        lastLoss = loss;
+
+        bestValidation = false;
+        if (validationPatience > 0 && !Double.isNaN(validationLoss)) {
+            if (validationLoss < bestValidationLoss) {
+                bestValidationLoss = validationLoss;
+                bestIteration = iterations - 1;
+                bestValidation = true;
+            } else if (iterations - 1 - bestIteration >= validationPatience) {
+                return StopReason.VALIDATION_PATIENCE;
+            }
+        }
+        if (minGradientNorm > 0.0 && gradientNorm < minGradientNorm) {
+            return StopReason.GRADIENT_CONVERGED;
+        }
+        if (minRelativeImprovement > 0.0 && !Double.isNaN(previousLoss)) {
+            double improvement = (previousLoss - loss) / Math.max(Math.abs(previousLoss), Double.MIN_NORMAL);
+            if (improvement < minRelativeImprovement) {
+                return StopReason.LOSS_CONVERGED;
+            }
+        }
+        if (timeBudgetNanos > 0 && now - startNanos >= timeBudgetNanos) {
+            return StopReason.TIME_BUDGET;
+        }
+        return null;
+    }
+
+    /**
+     * Time since {@link StoppingCriteria#start()}
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Throughput of the last checked iteration
+     * @param samples Number of samples the iteration processed
+     */
+    public double samplesPerSecond(long samples) {
+        return lastIterationNanos == 0 ? 0.0 : samples * 1e9 / lastIterationNanos;
+    }
+
+    /**
+     * Whether the validation loss of the last checked iteration is the best so far
+     */
+    public boolean isBestValidation() {
+        return bestValidation;
+    }
+
+    /**
+     * Summarize the run
+     * @param reason Why it stopped ({@link StopReason#MAX_ITERATIONS} if it ran to the end)
+     */
+    public TrainingSummary finish(StopReason reason) {
+        return new TrainingSummary(reason, iterations, lastLoss,
+                validationPatience > 0 ? bestValidationLoss : Double.NaN,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
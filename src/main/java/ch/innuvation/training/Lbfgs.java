@@ -0,0 +1,265 @@
+package ch.innuvation.training;
+
+import ch.innuvation.kernel.Kernels;
+
+/**
+ * Limited-memory BFGS minimizer with a strong Wolfe line search
+ *
+ * Keeps the last m pairs (s, y) of position and gradient changes and builds
+ * the search direction -H∇f with the two-loop recursion, so each iteration
+ * costs O(m·n) on top of the function evaluations. The line search (Nocedal
+ * & Wright, algorithms 3.5/3.6, cubic interpolation) accepts a step only when
+ * it gives sufficient decrease and satisfies the curvature condition, which
+ * keeps every stored pair positive definite. Usually one or two evaluations
+ * per iteration are enough.
+ *
+ * Not thread-safe; the objective itself may evaluate in parallel.
+ */
+public final class Lbfgs {
+    private static final Kernels KERNELS = Kernels.ACTIVE;
+    private static final double C1 = 1e-4;  // sufficient decrease
+    private static final double C2 = 0.9;   // curvature
+    private static final int MAX_LINE_SEARCH = 25;
+
+    /**
+     * Differentiable function to minimize
+     */
+    @FunctionalInterface
+    public interface Objective {
+        /**
+         * @param x Point to evaluate (must not be modified)
+         * @param gradient Receives ∇f(x)
+         * @return f(x)
+         */
+        double evaluate(double[] x, double[] gradient);
+    }
+
+    /**
+     * Called after every accepted step
+     */
+    @FunctionalInterface
+    public interface IterationCallback {
+        /**
+         * @param iteration Zero-based iteration index
+         * @param x Current point (must not be modified)
+         * @param value f(x)
+         * @param gradient ∇f(x)
+         * @return true to stop
+         */
+        boolean iterationCompleted(int iteration, double[] x, double value, double[] gradient);
+    }
+
+    private final int historySize;
+    private double acceptedValue;  // f at the step returned by the last line search
+
+    /**
+     * @param historySize Number of correction pairs m (typically 5 - 20)
+     */
+    public Lbfgs(int historySize) {
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("History size must be positive");
+        }
+        this.historySize = historySize;
+    }
+
+    /**
+     * Minimize f starting from x
+     * @param f Objective
+     * @param x Starting point, overwritten with the best point found
+     * @param maxIterations Maximum number of iterations
+     * @param callback Progress callback that can stop the minimization
+     * @return Number of iterations run; fewer than maxIterations without the
+     *         callback asking to stop means no further progress was possible
+     */
+    public int minimize(Objective f, double[] x, int maxIterations, IterationCallback callback) {
+        int n = x.length;
+        double[][] s = new double[historySize][n];
+        double[][] y = new double[historySize][n];
+        double[] rho = new double[historySize];
+        double[] alpha = new double[historySize];
+        int stored = 0;
+        int newest = -1;
+
+        double[] g = new double[n];
+        double[] d = new double[n];
+        double[] xTrial = new double[n];
+        double[] gTrial = new double[n];
+        double[] sCandidate = new double[n];
+        double[] yCandidate = new double[n];
+
+        double value = f.evaluate(x, g);
+        for (int iter = 0; iter < maxIterations; iter++) {
+            double gNorm = Math.sqrt(KERNELS.dot(g, 0, g, 0, n));
+            if (gNorm == 0.0 || Double.isNaN(value)) {
+                return iter;
+            }
+
+            // Direction d = -H g (two-loop recursion)
+            System.arraycopy(g, 0, d, 0, n);
+            for (int k = 0, i = newest; k < stored; k++, i = (i + historySize - 1) % historySize) {
+                alpha[i] = rho[i] * KERNELS.dot(s[i], 0, d, 0, n);
+                KERNELS.axpy(-alpha[i], y[i], 0, d, 0, n);
+            }
+            if (stored > 0) {
+                double gamma = 1.0 / (rho[newest] * KERNELS.dot(y[newest], 0, y[newest], 0, n));
+                scale(d, gamma);
+            }
+            for (int k = 0, i = (newest - stored + 1 + historySize) % historySize; k < stored;
+                 k++, i = (i + 1) % historySize) {
+                double beta = rho[i] * KERNELS.dot(y[i], 0, d, 0, n);
+                KERNELS.axpy(alpha[i] - beta, s[i], 0, d, 0, n);
+            }
+            scale(d, -1.0);
+
+            double slope = KERNELS.dot(g, 0, d, 0, n);
+            if (!(slope < 0.0)) {
+                // Not a descent direction (numerical trouble): restart from steepest descent
+                stored = 0;
+                System.arraycopy(g, 0, d, 0, n);
+                scale(d, -1.0);
+                slope = -gNorm * gNorm;
+            }
+
+            double initialStep = stored == 0 ? Math.min(1.0, 1.0 / gNorm) : 1.0;
+            double step = lineSearch(f, x, value, slope, d, initialStep, xTrial, gTrial);
+            if (step == 0.0) {
+                return iter;  // no acceptable step: converged as far as the precision allows
+            }
+            // (xTrial, gTrial) hold the accepted point. The correction pair only
+            // enters the ring if it has positive curvature, so a rejected pair
+            // (possible after the zoom fallback) never overwrites the oldest one
+            for (int j = 0; j < n; j++) {
+                sCandidate[j] = xTrial[j] - x[j];
+                yCandidate[j] = gTrial[j] - g[j];
+            }
+            double sy = KERNELS.dot(sCandidate, 0, yCandidate, 0, n);
+            if (sy > 1e-12 * KERNELS.dot(yCandidate, 0, yCandidate, 0, n)) {
+                int next = (newest + 1) % historySize;
+                System.arraycopy(sCandidate, 0, s[next], 0, n);
+                System.arraycopy(yCandidate, 0, y[next], 0, n);
+                rho[next] = 1.0 / sy;
+                newest = next;
+                stored = Math.min(stored + 1, historySize);
+            }
+
+            System.arraycopy(xTrial, 0, x, 0, n);
+            System.arraycopy(gTrial, 0, g, 0, n);
+            value = acceptedValue;
+
+            if (callback.iterationCompleted(iter, x, value, g)) {
+                return iter + 1;
+            }
+        }
+        return maxIterations;
+    }
+
+    /**
+     * Find a step satisfying the strong Wolfe conditions along d
+     * @return Accepted step (xTrial = x + step·d, gTrial its gradient, f in
+     *         acceptedValue), or 0 if none was found
+     */
+    private double lineSearch(Objective f, double[] x, double value0, double slope0, double[] d,
+                              double initialStep, double[] xTrial, double[] gTrial) {
+        double previousStep = 0.0;
+        double previousValue = value0;
+        double previousSlope = slope0;
+        double step = initialStep;
+
+        for (int i = 0; i < MAX_LINE_SEARCH; i++) {
+            double value = evaluateAt(f, x, d, step, xTrial, gTrial);
+            double slope = KERNELS.dot(gTrial, 0, d, 0, d.length);
+            if (value > value0 + C1 * step * slope0 || (i > 0 && value >= previousValue)) {
+                return zoom(f, x, value0, slope0, d, previousStep, previousValue, previousSlope,
+                        step, value, slope, xTrial, gTrial);
+            }
+            if (Math.abs(slope) <= -C2 * slope0) {
+                acceptedValue = value;
+                return step;
+            }
+            if (slope >= 0.0) {
+                return zoom(f, x, value0, slope0, d, step, value, slope,
+                        previousStep, previousValue, previousSlope, xTrial, gTrial);
+            }
+            previousStep = step;
+            previousValue = value;
+            previousSlope = slope;
+            step *= 2.0;
+        }
+        return 0.0;
+    }
+
+    /**
+     * Narrow the bracket [lo, hi] down to a step satisfying the strong Wolfe conditions
+     */
+    private double zoom(Objective f, double[] x, double value0, double slope0, double[] d,
+                        double lo, double valueLo, double slopeLo,
+                        double hi, double valueHi, double slopeHi,
+                        double[] xTrial, double[] gTrial) {
+        for (int i = 0; i < MAX_LINE_SEARCH; i++) {
+            double step = interpolate(lo, valueLo, slopeLo, hi, valueHi, slopeHi);
+            double value = evaluateAt(f, x, d, step, xTrial, gTrial);
+            double slope = KERNELS.dot(gTrial, 0, d, 0, d.length);
+            if (value > value0 + C1 * step * slope0 || value >= valueLo) {
+                hi = step;
+                valueHi = value;
+                slopeHi = slope;
+            } else {
+                if (Math.abs(slope) <= -C2 * slope0) {
+                    acceptedValue = value;
+                    return step;
+                }
+                if (slope * (hi - lo) >= 0.0) {
+                    hi = lo;
+                    valueHi = valueLo;
+                    slopeHi = slopeLo;
+                }
+                lo = step;
+                valueLo = value;
+                slopeLo = slope;
+            }
+            if (Math.abs(hi - lo) <= 1e-16 * Math.max(1.0, Math.abs(lo))) {
+                break;
+            }
+        }
+        // Fall back to the best sufficient-decrease point of the bracket, if any
+        if (lo > 0.0 && valueLo < value0) {
+            acceptedValue = evaluateAt(f, x, d, lo, xTrial, gTrial);
+            return lo;
+        }
+        return 0.0;
+    }
+
+    /**
+     * Minimizer of the cubic through both bracket ends, kept away from them;
+     * bisection when the cubic has no usable minimum
+     */
+    private static double interpolate(double lo, double valueLo, double slopeLo,
+                                      double hi, double valueHi, double slopeHi) {
+        double d1 = slopeLo + slopeHi - 3.0 * (valueLo - valueHi) / (lo - hi);
+        double radicand = d1 * d1 - slopeLo * slopeHi;
+        double min = Math.min(lo, hi);
+        double max = Math.max(lo, hi);
+        double margin = 0.1 * (max - min);
+        if (radicand >= 0.0) {
+            double d2 = Math.signum(hi - lo) * Math.sqrt(radicand);
+            double step = hi - (hi - lo) * (slopeHi + d2 - d1) / (slopeHi - slopeLo + 2.0 * d2);
+            if (step >= min + margin && step <= max - margin) {
+                return step;
+            }
+        }
+        return 0.5 * (lo + hi);
+    }
+
+    private static double evaluateAt(Objective f, double[] x, double[] d, double step,
+                                     double[] xTrial, double[] gTrial) {
+        System.arraycopy(x, 0, xTrial, 0, x.length);
+        KERNELS.axpy(step, d, 0, xTrial, 0, x.length);
+        return f.evaluate(xTrial, gTrial);
+    }
+
+    private static void scale(double[] v, double factor) {
+        for (int i = 0; i < v.length; i++) {
+            v[i] *= factor;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ch.innuvation.training;
+
+/**
+ * Learning rate as a function of the number of updates already applied
+ *
+ * Used by online training, where there is no fixed iteration count: a
+ * decaying rate lets early events move the weights quickly while later ones
+ * only fine-tune them.
+ */
+@FunctionalInterface
+public interface LearningRateSchedule {
+
+    /**
+     * @param step Number of updates applied before this one (0 for the first)
+     * @return Learning rate for this update
+     */
+    double rate(long step);
+
+    /**
+     * η(t) = η₀
+     */
+    static LearningRateSchedule constant(double rate) {
+        return step -> rate;
+    }
+
+    /**
+     * η(t) = η₀ / (1 + decay · t)
+     */
+    static LearningRateSchedule inverseTime(double initialRate, double decay) {
+        return step -> initialRate / (1.0 + decay * step);
+    }
+
+    /**
+     * η(t) = η₀ / √(1 + decay · t)
+     */
+    static LearningRateSchedule inverseSqrt(double initialRate, double decay) {
+        return step -> initialRate / Math.sqrt(1.0 + decay * step);
+    }
+
+    /**
+     * η(t) = η₀ · γ^t
+     */
+    static LearningRateSchedule exponential(double initialRate, double gamma) {
+        return step -> initialRate * Math.pow(gamma, step);
+    }
+}
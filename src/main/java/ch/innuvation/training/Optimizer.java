@@ -0,0 +1,143 @@
+package ch.innuvation.training;
+
+import ch.innuvation.kernel.Kernels;
+
+/**
+ * Rule that turns a gradient into a weight update
+ *
+ * An optimizer is a reusable configuration; {@link #start(int)} creates the
+ * per-run state (velocities, squared-gradient averages) for one parameter
+ * vector. Every update then works in place on the caller's buffers and
+ * allocates nothing.
+ */
+@FunctionalInterface
+public interface Optimizer {
+
+    /**
+     * Begin a training run over a parameter vector of the given length
+     */
+    Updater start(int numParameters);
+
+    /**
+     * Per-run state of an optimizer
+     */
+    @FunctionalInterface
+    interface Updater {
+        /**
+         * Apply one update in place
+         * @param weights Parameters [numParameters], updated
+         * @param gradients Gradient summed over the batch [numParameters], not modified
+         * @param batchSize Number of rows the gradient was summed over
+         */
+        void update(double[] weights, double[] gradients, double batchSize);
+    }
+
+    /**
+     * Plain gradient descent: w -= η g
+     */
+    static Optimizer sgd(double learningRate) {
+        Kernels kernels = Kernels.ACTIVE;
+        return n -> (w, g, batchSize) -> kernels.axpy(-learningRate / batchSize, g, 0, w, 0, n);
+    }
+
+    /**
+     * Heavy-ball momentum: v = μ v - η g, w += v
+     */
+    static Optimizer momentum(double learningRate, double momentum) {
+        return n -> {
+            double[] velocity = new double[n];
+            return (w, g, batchSize) -> {
+                double rate = learningRate / batchSize;
+                for (int i = 0; i < n; i++) {
+                    velocity[i] = momentum * velocity[i] - rate * g[i];
+                    w[i] += velocity[i];
+                }
+            };
+        };
+    }
+
+    /**
+     * Nesterov momentum, in the form that only needs the gradient at the
+     * current weights: v = μ v - η g, w += μ v - η g
+     */
+    static Optimizer nesterov(double learningRate, double momentum) {
+        return n -> {
+            double[] velocity = new double[n];
+            return (w, g, batchSize) -> {
+                double rate = learningRate / batchSize;
+                for (int i = 0; i < n; i++) {
+                    double step = rate * g[i];
+                    velocity[i] = momentum * velocity[i] - step;
+                    w[i] += momentum * velocity[i] - step;
+                }
+            };
+        };
+    }
+
+    /**
+     * AdaGrad: G += g², w -= η g / (√G + ε)
+     *
+     * Each parameter gets its own step size, shrinking with the gradients it
+     * has seen, so rare features keep large steps.
+     */
+    static Optimizer adaGrad(double learningRate) {
+        return n -> {
+            double[] squares = new double[n];
+            return (w, g, batchSize) -> {
+                for (int i = 0; i < n; i++) {
+                    double gi = g[i] / batchSize;
+                    squares[i] += gi * gi;
+                    w[i] -= learningRate * gi / (Math.sqrt(squares[i]) + 1e-8);
+                }
+            };
+        };
+    }
+
+    /**
+     * RMSProp: E = ρ E + (1 - ρ) g², w -= η g / (√E + ε)
+     */
+    static Optimizer rmsProp(double learningRate, double decay) {
+        return n -> {
+            double[] squares = new double[n];
+            return (w, g, batchSize) -> {
+                for (int i = 0; i < n; i++) {
+                    double gi = g[i] / batchSize;
+                    squares[i] = decay * squares[i] + (1.0 - decay) * gi * gi;
+                    w[i] -= learningRate * gi / (Math.sqrt(squares[i]) + 1e-8);
+                }
+            };
+        };
+    }
+
+    /**
+     * Adam with the usual defaults β₁ = 0.9, β₂ = 0.999, ε = 1e-8
+     */
+    static Optimizer adam(double learningRate) {
+        return adam(learningRate, 0.9, 0.999, 1e-8);
+    }
+
+    /**
+     * Adam: bias-corrected moving averages of g and g²,
+     * w -= η m̂ / (√v̂ + ε)
+     */
+    static Optimizer adam(double learningRate, double beta1, double beta2, double epsilon) {
+        return n -> {
+            double[] first = new double[n];
+            double[] second = new double[n];
+            long[] step = {0};
+            return (w, g, batchSize) -> {
+                step[0]++;
+                double correction1 = 1.0 - Math.pow(beta1, step[0]);
+                double correction2 = 1.0 - Math.pow(beta2, step[0]);
+                for (int i = 0; i < n; i++) {
+                    double gi = g[i] / batchSize;
+                    first[i] = beta1 * first[i] + (1.0 - beta1) * gi;
+                    second[i] = beta2 * second[i] + (1.0 - beta2) * gi * gi;
+                    double mHat = first[i] / correction1;
+                    double vHat = second[i] / correction2;
+                    w[i] -= learningRate * mHat / (Math.sqrt(vHat) + epsilon);
+                }
+            };
+        };
+    }
+}
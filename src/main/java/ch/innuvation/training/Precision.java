@@ -0,0 +1,17 @@
+package ch.innuvation.training;
+
+/**
+ * Floating-point precision of the training data in gradient-based training
+ */
+public enum Precision {
+    /** Features, labels and weights in double precision (default) */
+    DOUBLE,
+    /**
+     * Features, labels and the weights of the forward pass in single precision,
+     * halving the memory of the packed data and the bytes each gradient pass
+     * streams. Losses and gradients are still accumulated in double, and the
+     * optimizer updates a double copy of the weights, so sums over many rows
+     * keep their accuracy
+     */
+    FLOAT
+}
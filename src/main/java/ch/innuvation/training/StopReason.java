@@ -0,0 +1,19 @@
+package ch.innuvation.training;
+
+/**
+ * Why an iterative trainer stopped
+ */
+public enum StopReason {
+    /** Ran the configured number of iterations (or epochs) */
+    MAX_ITERATIONS,
+    /** Relative loss improvement between two iterations fell below the threshold */
+    LOSS_CONVERGED,
+    /** Gradient norm fell below the threshold */
+    GRADIENT_CONVERGED,
+    /** Wall-clock budget used up */
+    TIME_BUDGET,
+    /** Validation loss did not improve for the configured number of iterations */
+    VALIDATION_PATIENCE,
+    /** Solved directly (closed-form), without iterations */
+    CLOSED_FORM
+}
@@ -0,0 +1,91 @@
+package ch.innuvation.training;
+
+import java.time.Duration;
+
+/**
+ * Conditions that end gradient-descent training before the iteration limit
+ *
+ * Every criterion is disabled until configured; with none configured a trainer
+ * runs all of its iterations. Criteria are combined with "or": training stops
+ * at the first iteration where any of them is met.
+ * ```
+ * model.setStoppingCriteria(new StoppingCriteria()
+ *         .minRelativeImprovement(1e-6)
+ *         .timeBudget(Duration.ofSeconds(30)));
+ * ```
+ */
+public final class StoppingCriteria {
+    private double minRelativeImprovement;
+    private double minGradientNorm;
+    private long timeBudgetNanos;
+    private int validationPatience;
+
+    /**
+     * Criteria that never stop early
+     */
+    public static StoppingCriteria none() {
+        return new StoppingCriteria();
+    }
+
+    /**
+     * Stop when (previous loss - loss) / |previous loss| drops below the
+     * threshold, which includes the loss going up
+     */
+    public StoppingCriteria minRelativeImprovement(double threshold) {
+        if (threshold < 0.0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        this.minRelativeImprovement = threshold;
+        return this;
+    }
+
+    /**
+     * Stop when the L2 norm of the mean gradient drops below the threshold
+     * (full-batch trainers only; mini-batch epochs have no full gradient)
+     */
+    public StoppingCriteria minGradientNorm(double threshold) {
+        if (threshold < 0.0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        this.minGradientNorm = threshold;
+        return this;
+    }
+
+    /**
+     * Stop once training has run for the given wall-clock time
+     */
+    public StoppingCriteria timeBudget(Duration budget) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+        this.timeBudgetNanos = budget.toNanos();
+        return this;
+    }
+
+    /**
+     * Stop when the loss on the model's validation set has not improved for
+     * the given number of iterations; the weights with the best validation
+     * loss are restored
+     */
+    public StoppingCriteria validationPatience(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Patience must be positive");
+        }
+        this.validationPatience = iterations;
+        return this;
+    }
+
+    /**
+     * Whether the trainer must evaluate a validation loss every iteration
+     */
+    public boolean usesValidation() {
+        return validationPatience > 0;
+    }
+
+    /**
+     * Start monitoring one training run (starts the clock for the time budget)
+     */
+    public ConvergenceMonitor start() {
+        return new ConvergenceMonitor(minRelativeImprovement, minGradientNorm, timeBudgetNanos, validationPatience);
+    }
+}
@@ -0,0 +1,66 @@
+package ch.innuvation.training;
+
+/**
+ * Receives progress and timing events from the trainers
+ *
+ * Every method has an empty default, so an implementation overrides only what
+ * it needs. Trainers start with {@link #SILENT}, which ignores everything and
+ * lets the JIT remove the calls; attach a {@link ConsoleTrainingListener} to
+ * get the classic progress output, or forward the values to a metrics backend.
+ * Events arrive on the training thread, in order.
+ */
+public interface TrainingListener {
+
+    /**
+     * Listener that ignores all events (the default)
+     */
+    TrainingListener SILENT = new TrainingListener() {
+    };
+
+    /**
+     * A training run begins
+     */
+    default void trainingStarted(TrainingRun run) {
+    }
+
+    /**
+     * One iteration (or mini-batch epoch) has finished
+     * @param iteration Zero-based iteration index
+     * @param loss Training loss of the iteration (MSE or mean cross-entropy)
+     * @param gradientNorm L2 norm of the mean gradient, or NaN if not available
+     * @param samplesPerSecond Rows processed per second during the iteration
+     * @param elapsedNanos Time since the run started
+     */
+    default void iterationCompleted(int iteration, double loss, double gradientNorm,
+                                    double samplesPerSecond, long elapsedNanos) {
+    }
+
+    /**
+     * One iteration has finished, with the current values of the parameters named
+     * in {@link TrainingRun#parameterNames()}
+     *
+     * Only trainers with a handful of parameters report them; the default
+     * forwards to the variant without parameters. The array is reused by the
+     * trainer, so copy it to keep the values.
+     */
+    default void iterationCompleted(int iteration, double loss, double gradientNorm,
+                                    double samplesPerSecond, long elapsedNanos, double[] parameters) {
+        iterationCompleted(iteration, loss, gradientNorm, samplesPerSecond, elapsedNanos);
+    }
+
+    /**
+     * A non-iterative phase has finished, e.g. building the Gram matrix or
+     * solving the Normal Equation
+     * @param phase Name of the phase
+     * @param elapsedNanos Time spent in the phase
+     */
+    default void phaseCompleted(String phase, long elapsedNanos) {
+    }
+
+    /**
+     * The run has ended
+     * @param summary Why and when it stopped, and the final loss
+     */
+    default void trainingFinished(TrainingSummary summary) {
+    }
+}
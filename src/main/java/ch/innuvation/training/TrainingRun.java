@@ -0,0 +1,46 @@
+package ch.innuvation.training;
+
+/**
+ * Description of a training run, passed to {@link TrainingListener#trainingStarted}
+ */
+public final class TrainingRun {
+    private final String method;
+    private final String lossName;
+    private final String stepName;
+    private final long numSamples;
+    private final int maxIterations;
+    private final String[] parameterNames;
+
+    /**
+     * @param method Training method, e.g. "gradient descent"
+     * @param lossName Name of the reported loss, e.g. "MSE"
+     * @param stepName What one iteration is called, e.g. "Iteration" or "Epoch"
+     * @param numSamples Number of training rows
+     * @param maxIterations Iteration limit (0 for closed-form)
+     */
+    public TrainingRun(String method, String lossName, String stepName, long numSamples, int maxIterations) {
+        this(method, lossName, stepName, numSamples, maxIterations, new String[0]);
+    }
+
+    /**
+     * @param parameterNames Names of the parameters the trainer reports with each
+     *                       iteration, e.g. "w1", "w2" (see
+     *                       {@link TrainingListener#iterationCompleted(int, double, double, double, long, double[])})
+     */
+    public TrainingRun(String method, String lossName, String stepName, long numSamples, int maxIterations,
+                       String... parameterNames) {
+        this.method = method;
+        this.lossName = lossName;
+        this.stepName = stepName;
+        this.numSamples = numSamples;
+        this.maxIterations = maxIterations;
+        this.parameterNames = parameterNames.clone();
+    }
+
+    public String method() { return method; }
+    public String lossName() { return lossName; }
+    public String stepName() { return stepName; }
+    public long numSamples() { return numSamples; }
+    public int maxIterations() { return maxIterations; }
+    public String[] parameterNames() { return parameterNames.clone(); }
+}
@@ -0,0 +1,55 @@
+package ch.innuvation.training;
+
+/**
+ * Outcome of an iterative training run: why and when it stopped
+ */
+public final class TrainingSummary {
+    private final StopReason reason;
+    private final int iterations;
+    private final double finalLoss;
+    private final double bestValidationLoss;
+    private final long elapsedMillis;
+
+    TrainingSummary(StopReason reason, int iterations, double finalLoss, double bestValidationLoss,
+                    long elapsedMillis) {
+        this.reason = reason;
+        this.iterations = iterations;
+        this.finalLoss = finalLoss;
+        this.bestValidationLoss = bestValidationLoss;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Summary of a closed-form (non-iterative) fit
+     * @param finalLoss Training loss of the solution
+     * @param elapsedMillis Time spent fitting
+     */
+    public static TrainingSummary closedForm(double finalLoss, long elapsedMillis) {
+        return new TrainingSummary(StopReason.CLOSED_FORM, 0, finalLoss, Double.NaN, elapsedMillis);
+    }
+
+    public StopReason reason() { return reason; }
+
+    /**
+     * Number of iterations (or epochs) actually run
+     */
+    public int iterations() { return iterations; }
+
+    /**
+     * Training loss of the last iteration
+     */
+    public double finalLoss() { return finalLoss; }
+
+    /**
+     * Best validation loss seen, or NaN if no validation set was monitored
+     */
+    public double bestValidationLoss() { return bestValidationLoss; }
+
+    public long elapsedMillis() { return elapsedMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("Stopped after %d iterations (%s) in %d ms, loss = %.6f",
+                iterations, reason, elapsedMillis, finalLoss);
+    }
+}
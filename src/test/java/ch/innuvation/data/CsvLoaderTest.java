@@ -0,0 +1,44 @@
+package ch.innuvation.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvLoaderTest {
+    @TempDir
+    Path dir;
+
+    private CsvData load(String content) throws IOException {
+        Path csv = dir.resolve("data.csv");
+        Files.write(csv, content.getBytes(StandardCharsets.UTF_8));
+        return new CsvLoader(1, false).load(csv);
+    }
+
+    @Test
+    void trimsBlanksAroundFields() throws IOException {
+        CsvData data = load(" 1.5 ,\t-2e1\t\n+3 , 4 \n");
+        assertArrayEquals(new double[]{1.5, 3.0}, data.packedFeatures());
+        assertArrayEquals(new double[]{-20.0, 4.0}, data.packedTargets());
+    }
+
+    @Test
+    void rejectsBlankInsideNumber() {
+        assertThrows(IOException.class, () -> load("1 2,3\n"));
+        assertThrows(IOException.class, () -> load("- 1,3\n"));
+        assertThrows(IOException.class, () -> load("1e 5,3\n"));
+    }
+
+    @Test
+    void rejectsExponentWithoutDigits() {
+        assertThrows(IOException.class, () -> load("1e,3\n"));
+        assertThrows(IOException.class, () -> load("1e+,3\n"));
+        assertThrows(IOException.class, () -> load("2.5E-,3\n"));
+    }
+}